@@ -30,6 +30,19 @@ public final class RexChat extends JavaPlugin {
     private me.rexsystems.rexChat.service.PreviewAccessManager previewAccessManager;
     private me.rexsystems.rexChat.service.ItemSnapshotManager itemSnapshotManager;
     private me.rexsystems.rexChat.service.ChatColorManager chatColorManager;
+    private me.rexsystems.rexChat.service.ChatFormatManager chatFormatManager;
+    private me.rexsystems.rexChat.data.PlayerDataManager playerDataManager;
+    private me.rexsystems.rexChat.service.ProximityManager proximityManager;
+    // Dense int slot per online player, for bit set based player sets
+    private final me.rexsystems.rexChat.utils.SlotRegistry<org.bukkit.entity.Player> playerSlots =
+            new me.rexsystems.rexChat.utils.SlotRegistry<>();
+    private me.rexsystems.rexChat.service.ChannelManager channelManager;
+    private me.rexsystems.rexChat.service.PermissionCache permissionCache;
+    private me.rexsystems.rexChat.service.GroupResolver groupResolver;
+    private me.rexsystems.rexChat.service.PrefixManager prefixManager;
+    private me.rexsystems.rexChat.utils.HoverCardCache hoverCardCache;
+    private me.rexsystems.rexChat.service.ChatQueue chatQueue;
+    private me.rexsystems.rexChat.service.RateLimiter rateLimiter;
 
     @Override
     public void onEnable() {
@@ -62,14 +75,54 @@ public final class RexChat extends JavaPlugin {
                 logUtils.warning("Plugin will continue to run with potential configuration issues.");
             }
 
+            // Chat-time permission checks are answered from per-player snapshots
+            this.permissionCache = new me.rexsystems.rexChat.service.PermissionCache(this);
+            if (permissionCache.hookLuckPerms()) {
+                logUtils.info("LuckPerms detected: permission snapshots refresh on permission changes");
+            }
+            // Before any chat format is compiled, so static placeholders can be filled in.
+            // Cached placeholder values (prefixes, ranks...) follow permission changes and quits
+            me.rexsystems.rexChat.utils.PapiUtils.load(this);
+            permissionCache.addInvalidationListener(me.rexsystems.rexChat.utils.PapiUtils::invalidate);
+            this.groupResolver = new me.rexsystems.rexChat.service.GroupResolver(this);
+            this.prefixManager = new me.rexsystems.rexChat.service.PrefixManager(this);
+
+            // Per-player data (chat color, proximity bypass) lives in its own store, not data.yml
+            me.rexsystems.rexChat.data.PlayerDataStore playerStore = openPlayerDataStore();
+            this.playerDataManager = new me.rexsystems.rexChat.data.PlayerDataManager(this, playerStore);
+            int migrated = me.rexsystems.rexChat.data.YamlPlayerDataMigrator.migrate(this, dataManager, playerStore);
+            if (migrated > 0) {
+                logUtils.info("Migrated " + migrated + " players from data.yml to the player data store (backup: data.yml.bak)");
+            }
+
+            // Slots for players already online (e.g. after /reload), then channels
+            for (org.bukkit.entity.Player p : getServer().getOnlinePlayers()) {
+                playerSlots.register(p.getUniqueId(), p);
+            }
+            this.channelManager = new me.rexsystems.rexChat.service.ChannelManager(this, playerSlots);
+
             // Initialize ChatColorManager AFTER config is loaded
             this.chatColorManager = new me.rexsystems.rexChat.service.ChatColorManager(this);
+            // Compile chat formats once; rebuilt on /rexchat reload
+            this.chatFormatManager = new me.rexsystems.rexChat.service.ChatFormatManager(this);
+            this.hoverCardCache = new me.rexsystems.rexChat.utils.HoverCardCache(this);
+            this.chatQueue = new me.rexsystems.rexChat.service.ChatQueue(this);
+            this.rateLimiter = new me.rexsystems.rexChat.service.RateLimiter(this);
+            me.rexsystems.rexChat.utils.EmojiUtils.load(configManager.getConfig());
 
             // NOTE: Config color conversion DISABLED - users manage their own config format
             // Legacy codes (&6) are supported, no need to convert to MiniMessage
 
             commandManager.loadCommands();
 
+            // Seed the mention index with players already online (e.g. after /reload)
+            me.rexsystems.rexChat.utils.MentionUtils.invalidateCache();
+            // Index player positions for proximity chat
+            this.proximityManager = new me.rexsystems.rexChat.service.ProximityManager(this);
+            proximityManager.reset();
+            getServer().getPluginManager()
+                    .registerEvents(new me.rexsystems.rexChat.listener.ProximityListener(this), this);
+
             // Register read-only preview GUI listener
             getServer().getPluginManager().registerEvents(new PreviewGuiListener(), this);
             // Register preview access listener to grant tokens when commands are clicked
@@ -84,6 +137,8 @@ public final class RexChat extends JavaPlugin {
                 new RexChatPlaceholders(this).register();
                 logUtils.info("PlaceholderAPI expansion registered!");
             }
+            // Fill in static placeholders of expansions that load after us
+            me.rexsystems.rexChat.utils.PapiUtils.hookExpansionsLoaded(this, this::recompileFormats);
             
             updateChecker.checkForUpdatesAsync();
 
@@ -94,6 +149,12 @@ public final class RexChat extends JavaPlugin {
                 if (inventorySnapshotService != null) inventorySnapshotService.cleanupExpired();
             }, 300, 300, TimeUnit.SECONDS);
 
+            // Pick up bypass and channel permission changes
+            getServer().getAsyncScheduler().runAtFixedRate(this, scheduledTask -> {
+                if (proximityManager != null) proximityManager.refreshBypass();
+                if (channelManager != null) channelManager.refreshMembership();
+            }, 5, 5, TimeUnit.SECONDS);
+
             logUtils.info("RexChat has been enabled successfully!");
         } catch (Exception e) {
             getLogger().severe("Failed to enable RexChat: " + e.getMessage());
@@ -104,6 +165,22 @@ public final class RexChat extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        // Drop queued chat and let the workers finish before the stores below are closed
+        if (chatQueue != null) {
+            chatQueue.close();
+        }
+        if (permissionCache != null) {
+            permissionCache.close();
+        }
+        if (playerDataManager != null) {
+            playerDataManager.close();
+        }
+
+        // Write any pending data.yml changes before shutting down
+        if (dataManager != null) {
+            dataManager.saveDataNow();
+        }
+
         if (logUtils != null) {
             logUtils.info("RexChat has been disabled!");
         } else {
@@ -111,6 +188,41 @@ public final class RexChat extends JavaPlugin {
         }
     }
 
+    private me.rexsystems.rexChat.data.PlayerDataStore openPlayerDataStore() throws java.io.IOException {
+        String type = configManager.getConfig().getString("storage.type", "file").toLowerCase();
+        java.nio.file.Path folder = getDataFolder().toPath();
+        switch (type) {
+            case "sqlite":
+                logUtils.info("Using SQLite player data storage");
+                return me.rexsystems.rexChat.data.SqlPlayerDataStore.sqlite(folder.resolve("players.db"));
+            case "h2":
+                logUtils.info("Using H2 player data storage");
+                return me.rexsystems.rexChat.data.SqlPlayerDataStore.h2(folder.resolve("players"));
+            default:
+                if (!type.equals("file")) {
+                    logUtils.warning("Unknown storage.type '" + type + "', using file storage");
+                }
+                me.rexsystems.rexChat.data.LogPlayerDataStore store =
+                        new me.rexsystems.rexChat.data.LogPlayerDataStore(folder.resolve("players.dat"));
+                if (store.getCorruptRecords() > 0) {
+                    logUtils.warning("Skipped " + store.getCorruptRecords()
+                            + " damaged records in players.dat; those players fall back to their previous data");
+                }
+                return store;
+        }
+    }
+
+    /**
+     * Compile every chat format again (chat, hover, channel and range formats),
+     * so static placeholders pick up newly loaded PlaceholderAPI expansions.
+     */
+    private void recompileFormats() {
+        if (chatFormatManager != null) chatFormatManager.loadFormats();
+        if (hoverCardCache != null) hoverCardCache.reload();
+        if (channelManager != null) channelManager.loadChannels();
+        if (proximityManager != null) proximityManager.loadRanges();
+    }
+
     public static RexChat getInstance() {
         return instance;
     }
@@ -155,7 +267,51 @@ public final class RexChat extends JavaPlugin {
         return itemSnapshotManager;
     }
 
+    public me.rexsystems.rexChat.data.PlayerDataManager getPlayerDataManager() {
+        return playerDataManager;
+    }
+
+    public me.rexsystems.rexChat.service.PermissionCache getPermissionCache() {
+        return permissionCache;
+    }
+
+    public me.rexsystems.rexChat.service.PrefixManager getPrefixManager() {
+        return prefixManager;
+    }
+
+    public me.rexsystems.rexChat.utils.HoverCardCache getHoverCardCache() {
+        return hoverCardCache;
+    }
+
+    public me.rexsystems.rexChat.service.ChatQueue getChatQueue() {
+        return chatQueue;
+    }
+
+    public me.rexsystems.rexChat.service.RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public me.rexsystems.rexChat.service.GroupResolver getGroupResolver() {
+        return groupResolver;
+    }
+
+    public me.rexsystems.rexChat.utils.SlotRegistry<org.bukkit.entity.Player> getPlayerSlots() {
+        return playerSlots;
+    }
+
+    public me.rexsystems.rexChat.service.ChannelManager getChannelManager() {
+        return channelManager;
+    }
+
+    public me.rexsystems.rexChat.service.ProximityManager getProximityManager() {
+        return proximityManager;
+    }
+
     public me.rexsystems.rexChat.service.ChatColorManager getChatColorManager() {
         return chatColorManager;
     }
+
+    public me.rexsystems.rexChat.service.ChatFormatManager getChatFormatManager() {
+        return chatFormatManager;
+    }
 }
@@ -0,0 +1,37 @@
+package me.rexsystems.rexChat.api;
+
+import org.bukkit.entity.Player;
+
+/**
+ * Supplies the {prefix} and {suffix} shown in chat formats.
+ *
+ * RexChat picks LuckPerms, then Vault, then the static config prefixes at
+ * startup. Plugins can install their own provider with
+ * {@link RexChatAPI#setPrefixProvider(PrefixProvider)}. Results are cached
+ * per player by RexChat, so implementations don't need their own cache.
+ *
+ * @since 1.6.5
+ */
+public interface PrefixProvider {
+
+    /**
+     * Name shown in logs and /rexchat stats
+     */
+    String getName();
+
+    /**
+     * Get a player's chat prefix
+     *
+     * @param player The player
+     * @return Prefix with color codes, or null for none
+     */
+    String getPrefix(Player player);
+
+    /**
+     * Get a player's chat suffix
+     *
+     * @param player The player
+     * @return Suffix with color codes, or null for none
+     */
+    String getSuffix(Player player);
+}
@@ -155,6 +155,153 @@ public class RexChatAPI {
         return plugin.getConfigManager().getConfig().getDouble("chat-management.proximity.radius", 100.0);
     }
     
+    /**
+     * Check if a player has switched to global chat (/rexchat global), so their
+     * messages skip the proximity radius
+     * 
+     * @param player The player
+     * @return true if the player uses global chat
+     * @since 1.6.5
+     */
+    public boolean isGlobalChat(Player player) {
+        return plugin.getPlayerDataManager().isGlobalChat(player);
+    }
+    
+    /**
+     * Switch a player between global and local (proximity) chat
+     * 
+     * @param player The player
+     * @param global true for global chat, false for local chat
+     * @since 1.6.5
+     */
+    public void setGlobalChat(Player player, boolean global) {
+        plugin.getPlayerDataManager().setGlobalChat(player.getUniqueId(), global);
+    }
+    
+    /**
+     * Get the ids of the configured chat channels
+     * 
+     * @return Channel ids in config order (empty if channels are disabled)
+     * @since 1.6.5
+     */
+    public java.util.Set<String> getChannels() {
+        var manager = plugin.getChannelManager();
+        if (manager == null || !manager.isEnabled()) {
+            return java.util.Set.of();
+        }
+        return manager.getChannels().keySet();
+    }
+    
+    /**
+     * Get the channel a player is talking in
+     * 
+     * @param player The player
+     * @return Channel id or null for normal chat
+     * @since 1.6.5
+     */
+    public String getFocusedChannel(Player player) {
+        var manager = plugin.getChannelManager();
+        if (manager == null) {
+            return null;
+        }
+        var channel = manager.getFocusedChannel(player);
+        return channel != null ? channel.id() : null;
+    }
+    
+    /**
+     * Make a player talk in a channel, joining it if needed
+     * 
+     * @param player The player
+     * @param channelId Channel id or null for normal chat
+     * @return true if successful, false if the channel doesn't exist or player lacks permission
+     * @since 1.6.5
+     */
+    public boolean setFocusedChannel(Player player, String channelId) {
+        var manager = plugin.getChannelManager();
+        if (manager == null) {
+            return false;
+        }
+        if (channelId == null) {
+            manager.setFocus(player, null);
+            return true;
+        }
+        var channel = manager.getChannel(channelId);
+        if (channel == null || !manager.canUse(player, channel)) {
+            return false;
+        }
+        manager.setFocus(player, channel);
+        return true;
+    }
+    
+    /**
+     * Check if a player receives messages from a channel
+     * 
+     * @param player The player
+     * @param channelId Channel id
+     * @return true if the player is a member of the channel
+     * @since 1.6.5
+     */
+    public boolean isInChannel(Player player, String channelId) {
+        var manager = plugin.getChannelManager();
+        var channel = manager != null ? manager.getChannel(channelId) : null;
+        return channel != null && manager.isMember(player, channel);
+    }
+    
+    /**
+     * Join or leave a channel
+     * 
+     * @param player The player
+     * @param channelId Channel id
+     * @param member true to join, false to leave
+     * @return true if successful, false if the channel doesn't exist or player lacks permission
+     * @since 1.6.5
+     */
+    public boolean setInChannel(Player player, String channelId, boolean member) {
+        var manager = plugin.getChannelManager();
+        var channel = manager != null ? manager.getChannel(channelId) : null;
+        if (channel == null || (member && !manager.canUse(player, channel))) {
+            return false;
+        }
+        if (member) {
+            manager.join(player, channel);
+        } else {
+            manager.leave(player, channel);
+        }
+        return true;
+    }
+    
+    /**
+     * Get a player's chat prefix as used in {prefix}
+     * 
+     * @param player The player
+     * @return Prefix with color codes (empty if none)
+     * @since 1.6.5
+     */
+    public String getPrefix(Player player) {
+        return plugin.getPrefixManager().getPrefix(player);
+    }
+    
+    /**
+     * Get a player's chat suffix as used in {suffix}
+     * 
+     * @param player The player
+     * @return Suffix with color codes (empty if none)
+     * @since 1.6.5
+     */
+    public String getSuffix(Player player) {
+        return plugin.getPrefixManager().getSuffix(player);
+    }
+    
+    /**
+     * Replace the prefix/suffix source (LuckPerms, Vault or config by default)
+     * 
+     * @param provider Your provider, or null to go back to the default
+     * @since 1.6.5
+     */
+    public void setPrefixProvider(PrefixProvider provider) {
+        plugin.getPrefixManager().setCustomProvider(provider);
+    }
+    
     /**
      * Set proximity chat enabled state
      * 
@@ -11,8 +11,11 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerChatEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerCommandPreprocessEvent;
 import net.kyori.adventure.text.Component;
@@ -24,7 +27,6 @@ public class ChatManager implements Listener {
     private final java.util.Map<java.util.UUID, Long> lastCommandAt = new java.util.concurrent.ConcurrentHashMap<>();
     private static final boolean DEBUG_CHAT = false; // disable debugging
     private final boolean hasPaperAsyncEvent;
-    private final java.util.Map<java.util.UUID, ChatStamp> lastChat = new java.util.concurrent.ConcurrentHashMap<>();
 
     public ChatManager(RexChat plugin) {
         this.plugin = plugin;
@@ -62,7 +64,7 @@ public class ChatManager implements Listener {
             return;
         }
 
-        if (chatMuted && !player.hasPermission("rexchat.bypass")) {
+        if (chatMuted && !plugin.getPermissionCache().has(player, "rexchat.bypass")) {
             String mutedMessage = plugin.getConfigManager().getConfig()
                     .getString("chat-management.mute.muted-message", "%rc_prefix%&#ff0000The chat is currently muted.");
             sendMessage(player, mutedMessage);
@@ -82,15 +84,13 @@ public class ChatManager implements Listener {
                 return;
             }
             String msg = original;
-            if (!player.hasPermission("rexchat.chatcolor")) {
+            if (!plugin.getPermissionCache().has(player, "rexchat.chatcolor")) {
                 msg = me.rexsystems.rexChat.utils.ColorUtils.stripColors(msg);
             }
-            // Play mention effects (sound/notify) based on the original message
-            java.util.Set<Player> targets = me.rexsystems.rexChat.utils.MentionUtils.findMentionedPlayers(original,
-                    plugin.getConfigManager().getConfig());
-            me.rexsystems.rexChat.utils.MentionUtils.playMentionEffects(plugin, player, targets);
+            // Mention effects (sound/notify) are based on the original message
+            java.util.BitSet targets = me.rexsystems.rexChat.utils.MentionUtils.findMentionedPlayers(plugin, original);
             event.setCancelled(true);
-            formatter.sendFormattedChat(player, msg);
+            formatter.sendFormattedChat(player, msg, targets);
             dbg("Formatted legacy sync chat for player=" + player.getName());
         }
     }
@@ -107,7 +107,7 @@ public class ChatManager implements Listener {
             return;
         }
 
-        if (chatMuted && !player.hasPermission("rexchat.bypass")) {
+        if (chatMuted && !plugin.getPermissionCache().has(player, "rexchat.bypass")) {
             String mutedMessage = plugin.getConfigManager().getConfig()
                     .getString("chat-management.mute.muted-message", "%rc_prefix%&#ff0000The chat is currently muted.");
             sendMessage(player, mutedMessage);
@@ -126,16 +126,16 @@ public class ChatManager implements Listener {
                 return;
             }
             String msg = original;
-            if (!player.hasPermission("rexchat.chatcolor")) {
+            if (!plugin.getPermissionCache().has(player, "rexchat.chatcolor")) {
                 msg = me.rexsystems.rexChat.utils.ColorUtils.stripColors(msg);
             }
-            // Play mention effects (sound/notify) based on the original message
-            java.util.Set<Player> targets = me.rexsystems.rexChat.utils.MentionUtils.findMentionedPlayers(original,
-                    plugin.getConfigManager().getConfig());
-            me.rexsystems.rexChat.utils.MentionUtils.playMentionEffects(plugin, player, targets);
             // Cancel vanilla formatting and broadcast our formatted string
             event.setCancelled(true);
-            formatter.sendFormattedChat(player, msg);
+            String line = msg;
+            // Mention effects (sound/notify) are based on the original message. Mentions are
+            // slot numbers, so find them when the job runs: slots may be reused while it waits
+            plugin.getChatQueue().submit(player, () -> formatter.sendFormattedChat(player, line,
+                    me.rexsystems.rexChat.utils.MentionUtils.findMentionedPlayers(plugin, original)));
             dbg("Formatted fallback chat for player=" + player.getName());
         }
     }
@@ -152,36 +152,21 @@ public class ChatManager implements Listener {
         plugin.getLogger().info("[RexChat-Debug] " + msg);
     }
 
-    private static class ChatStamp {
-        final String msg;
-        final long at;
-
-        ChatStamp(String msg, long at) {
-            this.msg = msg;
-            this.at = at;
-        }
-    }
-
+    // Rate limit and duplicate check; also drops the second of the sync/async events
+    // some legacy servers fire for the same message
     private boolean shouldProcessChat(Player player, String msg) {
-        long now = System.currentTimeMillis();
-        ChatStamp prev = lastChat.get(player.getUniqueId());
-        if (prev != null) {
-            if (msg.equals(prev.msg) && (now - prev.at) < 800) {
-                return false;
-            }
-        }
-        lastChat.put(player.getUniqueId(), new ChatStamp(msg, now));
-        return true;
+        return plugin.getRateLimiter().tryAcquire(player, msg);
     }
 
     public void clearChat(String executor) {
         int lines = plugin.getConfigManager().getConfig().getInt("chat-management.clear.lines", 100);
 
-        for (Player player : Bukkit.getOnlinePlayers()) {
+        me.rexsystems.rexChat.utils.SlotRegistry<Player> slots = plugin.getPlayerSlots();
+        slots.forEach(slots.occupied(), player -> {
             for (int i = 0; i < lines; i++) {
                 player.sendMessage(" ");
             }
-        }
+        });
 
         String clearMessage = plugin.getConfigManager().getConfig()
                 .getString("chat-management.clear.clear-message",
@@ -195,7 +180,7 @@ public class ChatManager implements Listener {
     public void toggleMute(String executor) {
         chatMuted = !chatMuted;
 
-        plugin.getDataManager().getData().set("chat.muted", chatMuted);
+        plugin.getDataManager().set("chat.muted", chatMuted);
         plugin.getDataManager().saveData();
 
         String message = chatMuted
@@ -213,26 +198,52 @@ public class ChatManager implements Listener {
     private void sendMessage(Player player, String message) {
         String prefix = plugin.getConfigManager().getConfig().getString("messages.prefix", "");
         message = message.replace("%rc_prefix%", prefix);
-        MessageUtils.sendMessage(player, message);
+        MessageUtils.sendCachedMessage(player, message);
     }
 
     private void broadcastMessage(String message) {
         String prefix = plugin.getConfigManager().getConfig().getString("messages.prefix", "");
         message = message.replace("%rc_prefix%", prefix);
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            MessageUtils.sendMessage(player, message);
-        }
-        MessageUtils.sendMessage(Bukkit.getConsoleSender(), message);
+        String line = message;
+        me.rexsystems.rexChat.utils.SlotRegistry<Player> slots = plugin.getPlayerSlots();
+        slots.forEach(slots.occupied(), player -> MessageUtils.sendCachedMessage(player, line));
+        MessageUtils.sendCachedMessage(Bukkit.getConsoleSender(), message);
     }
 
     public boolean isChatMuted() {
         return chatMuted;
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        // Read per-player data off the main thread, before the player can chat
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED && plugin.getPlayerDataManager() != null) {
+            plugin.getPlayerDataManager().load(event.getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLogin(PlayerLoginEvent event) {
+        // Login refused after pre-login: no quit event will follow
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED && plugin.getPlayerDataManager() != null) {
+            plugin.getPlayerDataManager().unload(event.getPlayer().getUniqueId());
+        }
+    }
+
     @EventHandler
     public void onJoin(PlayerJoinEvent event) {
-        // Invalidate mention pattern cache when player list changes
-        me.rexsystems.rexChat.utils.MentionUtils.invalidateCache();
+        plugin.getPermissionCache().invalidate(event.getPlayer().getUniqueId());
+        // Give the player a slot for bit set based player sets, then join their channels
+        plugin.getPlayerSlots().register(event.getPlayer().getUniqueId(), event.getPlayer());
+        if (plugin.getChannelManager() != null) {
+            plugin.getChannelManager().playerJoined(event.getPlayer());
+        }
+        // Add the name to the mention index (automaton is rebuilt lazily on next chat)
+        me.rexsystems.rexChat.utils.MentionUtils.getIndex().add(event.getPlayer());
+        // Load the selected chat color once instead of reading data.yml per message
+        if (plugin.getChatColorManager() != null) {
+            plugin.getChatColorManager().loadPlayer(event.getPlayer());
+        }
 
         // Custom join message handling
         String joinMsg = plugin.getConfigManager().getConfig().getString("join-leave.join-message", null);
@@ -280,15 +291,30 @@ public class ChatManager implements Listener {
         }
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        // Permissions may be per world
+        plugin.getPermissionCache().invalidate(event.getPlayer().getUniqueId());
+    }
+
     @EventHandler
     public void onQuit(PlayerQuitEvent event) {
-        // Invalidate mention pattern cache when player list changes
-        me.rexsystems.rexChat.utils.MentionUtils.invalidateCache();
+        // Remove the name from the mention index
+        me.rexsystems.rexChat.utils.MentionUtils.getIndex().remove(event.getPlayer().getUniqueId());
+        if (plugin.getChatColorManager() != null) {
+            plugin.getChatColorManager().unloadPlayer(event.getPlayer().getUniqueId());
+        }
+        if (plugin.getPlayerDataManager() != null) {
+            plugin.getPlayerDataManager().unload(event.getPlayer().getUniqueId());
+        }
+        // Frees the slot and removes it from all channels
+        plugin.getPlayerSlots().unregister(event.getPlayer().getUniqueId());
+        plugin.getPermissionCache().invalidate(event.getPlayer().getUniqueId());
 
         // Clean up inventory snapshot on quit
         plugin.getInventorySnapshotService().removeSnapshot(event.getPlayer());
-        // Clean up chat dedup tracking
-        lastChat.remove(event.getPlayer().getUniqueId());
+        // Clean up rate limit and dedup tracking
+        plugin.getRateLimiter().remove(event.getPlayer().getUniqueId());
         lastCommandAt.remove(event.getPlayer().getUniqueId());
 
         String leaveMsg = plugin.getConfigManager().getConfig().getString("join-leave.leave-message", null);
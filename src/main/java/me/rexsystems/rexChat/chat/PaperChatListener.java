@@ -4,7 +4,10 @@ import me.rexsystems.rexChat.RexChat;
 import me.rexsystems.rexChat.utils.MessageFormatter;
 import me.rexsystems.rexChat.utils.ColorUtils;
 import me.rexsystems.rexChat.utils.MessageUtils;
+import io.papermc.paper.chat.ChatRenderer;
 import io.papermc.paper.event.player.AsyncChatEvent;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -30,40 +33,100 @@ public class PaperChatListener implements Listener {
     public void onAsyncChatPaper(AsyncChatEvent event) {
         Player player = event.getPlayer();
 
-        if (chatManager.isChatMuted() && !player.hasPermission("rexchat.bypass")) {
+        if (chatManager.isChatMuted() && !plugin.getPermissionCache().has(player, "rexchat.bypass")) {
             String mutedMessage = plugin.getConfigManager().getConfig()
                     .getString("chat-management.mute.muted-message", "%rc_prefix%&#ff0000The chat is currently muted.");
             String prefix = plugin.getConfigManager().getConfig().getString("messages.prefix", "");
             mutedMessage = mutedMessage.replace("%rc_prefix%", prefix);
-            MessageUtils.sendMessage(player, mutedMessage);
+            MessageUtils.sendCachedMessage(player, mutedMessage);
             event.setCancelled(true);
             return;
         }
 
+        // Drop spam before any formatting work
+        String raw = PlainTextComponentSerializer.plainText().serialize(event.message());
+        if (!plugin.getRateLimiter().tryAcquire(player, raw)) {
+            event.setCancelled(true);
+            return;
+        }
+
+        // A focused channel is always delivered by us to its members only; Paper's
+        // renderer path would send it to every viewer
+        me.rexsystems.rexChat.service.ChannelManager channels = plugin.getChannelManager();
+        if (channels != null && channels.isEnabled()) {
+            me.rexsystems.rexChat.service.ChannelManager.Channel channel = channels.getFocusedChannel(player);
+            if (channel != null) {
+                if (channels.canUse(player, channel)) {
+                    event.setCancelled(true);
+                    plugin.getChatQueue().submit(player, () -> formatter.sendToChannel(player, channel, raw,
+                            me.rexsystems.rexChat.utils.MentionUtils.findMentionedPlayers(plugin, raw)));
+                    return;
+                }
+                // Lost access to the channel: back to normal chat
+                channels.setFocus(player, null);
+            }
+        }
+
         boolean formatEnabled = plugin.getConfigManager().getConfig().getBoolean("chat-format.enabled", true);
         if (!formatEnabled)
             return;
 
-        // Compute plain message and trigger mention effects (sound/notify)
-        String raw = PlainTextComponentSerializer.plainText().serialize(event.message());
-        java.util.Set<Player> targets = me.rexsystems.rexChat.utils.MentionUtils.findMentionedPlayers(raw,
-                plugin.getConfigManager().getConfig());
-        me.rexsystems.rexChat.utils.MentionUtils.playMentionEffects(plugin, player, targets);
-
         // If 1.19+ and chat-reporting.disable is true, convert to system messages
         boolean disableReporting = plugin.getConfigManager().getConfig().getBoolean("chat-reporting.disable", true);
         boolean is119Plus = MessageUtils.isMinecraftVersionAtLeast(1, 19);
         if (disableReporting && is119Plus) {
             // Color stripping and preset application are handled in buildRenderedString
             event.setCancelled(true);
-            formatter.sendFormattedChat(player, raw);
+            // Mentions are slot numbers; find them when the job runs, as slots may be reused while it waits
+            plugin.getChatQueue().submit(player, () -> formatter.sendFormattedChat(player, raw,
+                    me.rexsystems.rexChat.utils.MentionUtils.findMentionedPlayers(plugin, raw)));
             return;
         }
 
-        // Default: Use Paper's renderer to honor chat-format.format
-        event.renderer((source, displayName, message, viewer) -> {
+        // Mentioned players (for sound/notify)
+        java.util.BitSet targets = me.rexsystems.rexChat.utils.MentionUtils.findMentionedPlayers(plugin, raw);
+        // Paper delivers to the event's viewers; mention effects go to every mentioned player
+        me.rexsystems.rexChat.utils.MentionUtils.playMentionEffects(plugin, player, targets);
+
+        // Default: Use Paper's renderer to honor chat-format.format.
+        // The line is the same for every viewer, so render it once and let Paper reuse it.
+        boolean perViewerMentions = plugin.getConfigManager().getConfig()
+                .getBoolean("mention.per-viewer-highlight", false);
+        if (!perViewerMentions || targets.isEmpty()) {
+            event.renderer(ChatRenderer.viewerUnaware((source, displayName, message) -> {
+                String plain = PlainTextComponentSerializer.plainText().serialize(message);
+                return formatter.buildFormattedComponent(source, plain);
+            }));
+            return;
+        }
+
+        // Per-viewer mention highlights: everyone shares one un-highlighted render,
+        // only mentioned viewers get a copy with their own name highlighted
+        event.renderer(new PerViewerMentionRenderer(targets));
+    }
+
+    /**
+     * Renders the shared line once and only re-renders for viewers that were
+     * mentioned in the message.
+     */
+    private final class PerViewerMentionRenderer implements ChatRenderer {
+        private final java.util.BitSet targets;
+        private Component shared;
+
+        PerViewerMentionRenderer(java.util.BitSet targets) {
+            this.targets = targets;
+        }
+
+        @Override
+        public Component render(Player source, Component sourceDisplayName, Component message, Audience viewer) {
             String plain = PlainTextComponentSerializer.plainText().serialize(message);
-            return formatter.buildFormattedComponent(source, plain);
-        });
+            if (viewer instanceof Player target && plugin.getPlayerSlots().contains(targets, target.getUniqueId())) {
+                return formatter.buildFormattedComponent(source, plain, target::equals);
+            }
+            if (shared == null) {
+                shared = formatter.buildFormattedComponent(source, plain, p -> false);
+            }
+            return shared;
+        }
     }
 }
\ No newline at end of file
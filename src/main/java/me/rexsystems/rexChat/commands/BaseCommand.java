@@ -33,7 +33,8 @@ public abstract class BaseCommand implements CommandExecutor, TabCompleter {
         if (!allowed) {
             String noPermMsg = plugin.getConfigManager().getConfig()
                 .getString("messages.no-permission", "%rc_prefix%&#ff0000You don't have permission to use this command.");
-            sendMessage(sender, noPermMsg);
+            String prefix = plugin.getConfigManager().getConfig().getString("messages.prefix", "");
+            MessageUtils.sendCachedMessage(sender, noPermMsg.replace("%rc_prefix%", prefix));
             return false;
         }
         return true;
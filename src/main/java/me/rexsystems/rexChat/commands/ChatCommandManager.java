@@ -480,6 +480,15 @@ public class ChatCommandManager {
             chatcolorCmd.setTabCompleter(executor);
         }
 
+        // Register /channel command
+        PluginCommand channelCmd = plugin.getCommand("channel");
+        if (channelCmd != null) {
+            me.rexsystems.rexChat.commands.chat.ChannelCommand executor = new me.rexsystems.rexChat.commands.chat.ChannelCommand(
+                    plugin);
+            channelCmd.setExecutor(executor);
+            channelCmd.setTabCompleter(executor);
+        }
+
         ConfigurationSection commandsSection = plugin.getConfigManager().getConfig()
                 .getConfigurationSection("commands");
         if (commandsSection != null) {
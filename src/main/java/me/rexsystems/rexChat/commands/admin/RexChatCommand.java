@@ -11,7 +11,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 public class RexChatCommand extends BaseCommand {
-    private final List<String> subCommands = List.of("reload", "help", "global", "local");
+    private final List<String> subCommands = List.of("reload", "stats", "help", "global", "local");
 
     public RexChatCommand(RexChat plugin) {
         super(plugin);
@@ -40,11 +40,43 @@ public class RexChatCommand extends BaseCommand {
 
             plugin.getConfigManager().loadConfigs();
 
+            // Drop cached permissions first so everything below sees fresh results
+            if (plugin.getPermissionCache() != null) {
+                plugin.getPermissionCache().loadSettings();
+            }
+            me.rexsystems.rexChat.utils.PapiUtils.load(plugin);
+            if (plugin.getGroupResolver() != null) {
+                plugin.getGroupResolver().reload();
+            }
+            if (plugin.getPrefixManager() != null) {
+                plugin.getPrefixManager().reload();
+            }
             if (plugin.getChatColorManager() != null) {
                 plugin.getChatColorManager().loadPresets();
             }
+            if (plugin.getChatFormatManager() != null) {
+                plugin.getChatFormatManager().loadFormats();
+            }
+            if (plugin.getHoverCardCache() != null) {
+                plugin.getHoverCardCache().reload();
+            }
+            if (plugin.getChatQueue() != null) {
+                plugin.getChatQueue().reload();
+            }
+            if (plugin.getRateLimiter() != null) {
+                plugin.getRateLimiter().reload();
+            }
+            me.rexsystems.rexChat.utils.EmojiUtils.load(plugin.getConfigManager().getConfig());
+            if (plugin.getChannelManager() != null) {
+                plugin.getChannelManager().loadChannels();
+            }
+            if (plugin.getProximityManager() != null) {
+                plugin.getProximityManager().loadRanges();
+                plugin.getProximityManager().refreshBypass();
+            }
 
             plugin.getCommandManager().loadCommands();
+            me.rexsystems.rexChat.utils.ColorUtils.clearComponentCache();
 
             String reloadMsg = plugin.getConfigManager().getConfig()
                     .getString("messages.reload-success", "&aConfiguration reloaded successfully!");
@@ -52,6 +84,14 @@ public class RexChatCommand extends BaseCommand {
             return true;
         }
 
+        if (args[0].equalsIgnoreCase("stats")) {
+            if (!hasPermission(sender, "admin"))
+                return true;
+
+            showStats(sender);
+            return true;
+        }
+
         // /rexchat viewinv <id> - view inventory by unique snapshot ID (triggered by chat click)
         if (args[0].equalsIgnoreCase("viewinv")) {
             if (!(sender instanceof org.bukkit.entity.Player)) {
@@ -206,10 +246,7 @@ public class RexChatCommand extends BaseCommand {
             }
 
             org.bukkit.entity.Player player = (org.bukkit.entity.Player) sender;
-            String uuid = player.getUniqueId().toString();
-
-            plugin.getDataManager().getData().set("proximity-bypass." + uuid, true);
-            plugin.getDataManager().saveData();
+            plugin.getPlayerDataManager().setGlobalChat(player.getUniqueId(), true);
 
             String msg = plugin.getConfigManager().getConfig()
                     .getString("chat-management.proximity.global-enabled", "%rc_prefix%&aGlobal chat enabled. Everyone will see your messages.");
@@ -232,10 +269,7 @@ public class RexChatCommand extends BaseCommand {
             }
 
             org.bukkit.entity.Player player = (org.bukkit.entity.Player) sender;
-            String uuid = player.getUniqueId().toString();
-
-            plugin.getDataManager().getData().set("proximity-bypass." + uuid, null);
-            plugin.getDataManager().saveData();
+            plugin.getPlayerDataManager().setGlobalChat(player.getUniqueId(), false);
 
             String msg = plugin.getConfigManager().getConfig()
                     .getString("chat-management.proximity.local-enabled", "%rc_prefix%&eLocal chat enabled. Only nearby players will see your messages.");
@@ -265,6 +299,54 @@ public class RexChatCommand extends BaseCommand {
         return new ArrayList<>();
     }
 
+    private void showStats(CommandSender sender) {
+        String prefix = plugin.getConfigManager().getConfig().getString("messages.prefix", "");
+        long hits = me.rexsystems.rexChat.utils.ColorUtils.getComponentCacheHits();
+        long misses = me.rexsystems.rexChat.utils.ColorUtils.getComponentCacheMisses();
+
+        sendMessage(sender, prefix + "&6RexChat Stats");
+        sendMessage(sender, "  &7Component cache: &f" + me.rexsystems.rexChat.utils.ColorUtils.getComponentCacheSize()
+                + " &7entries, &f" + hits + " &7hits, &f" + misses + " &7misses");
+
+        me.rexsystems.rexChat.utils.MentionIndex mentionIndex = me.rexsystems.rexChat.utils.MentionUtils.getIndex();
+        sendMessage(sender, "  &7Mention index: &f" + mentionIndex.size() + " &7names, &f"
+                + mentionIndex.getRebuildCount() + " &7rebuilds");
+        if (plugin.getProximityManager() != null) {
+            sendMessage(sender, "  &7Proximity index: &f" + plugin.getProximityManager().getTrackedCount() + " &7players");
+        }
+        sendMessage(sender, "  &7Player slots: &f" + plugin.getPlayerSlots().size());
+        if (plugin.getPermissionCache() != null) {
+            sendMessage(sender, "  &7Permission snapshots: &f" + plugin.getPermissionCache().size());
+        }
+        if (plugin.getGroupResolver() != null) {
+            sendMessage(sender, "  &7Cached chat groups: &f" + plugin.getGroupResolver().size());
+        }
+        if (plugin.getPrefixManager() != null) {
+            sendMessage(sender, "  &7Prefix provider: &f" + plugin.getPrefixManager().getProvider().getName()
+                    + " &7(&f" + plugin.getPrefixManager().size() + " &7cached)");
+        }
+        sendMessage(sender, "  &7Cached placeholders: &f" + me.rexsystems.rexChat.utils.PapiUtils.cacheSize());
+        if (plugin.getHoverCardCache() != null) {
+            sendMessage(sender, "  &7Hover cards: &f" + plugin.getHoverCardCache().size() + " &7cached, &f"
+                    + plugin.getHoverCardCache().getBuildCount() + " &7built");
+        }
+        me.rexsystems.rexChat.service.ChatQueue chatQueue = plugin.getChatQueue();
+        if (chatQueue != null && chatQueue.isEnabled()) {
+            sendMessage(sender, "  &7Chat queue: &f" + chatQueue.getDepth() + " &7waiting, &f"
+                    + chatQueue.getProcessedCount() + " &7sent, &f" + chatQueue.getShedCount() + " &7shed, &f"
+                    + chatQueue.getExpiredCount() + " &7expired");
+        }
+        if (plugin.getRateLimiter() != null) {
+            sendMessage(sender, "  &7Rate limited: &f" + plugin.getRateLimiter().getRejectedCount()
+                    + " &7messages, &f" + plugin.getRateLimiter().getDuplicateCount() + " &7duplicates");
+        }
+        if (plugin.getChannelManager() != null) {
+            for (me.rexsystems.rexChat.service.ChannelManager.Channel channel : plugin.getChannelManager().getChannels().values()) {
+                sendMessage(sender, "  &7Channel &f" + channel.id() + "&7: &f" + channel.size() + " &7members");
+            }
+        }
+    }
+
     private void showHelp(CommandSender sender, String label) {
         String prefix = plugin.getConfigManager().getConfig().getString("messages.prefix", "");
         boolean proximityEnabled = plugin.getConfigManager().getConfig().getBoolean("chat-management.proximity.enabled", false);
@@ -276,6 +358,7 @@ public class RexChatCommand extends BaseCommand {
         if (hasPermissionForHelp(sender, "rexchat.admin")) {
             sendMessage(sender, "  &6Admin Commands:");
             sendMessage(sender, "    &e/" + label + " reload &7- Reload plugin configuration");
+            sendMessage(sender, "    &e/" + label + " stats &7- Show cache and performance counters");
             sendMessage(sender, "");
         }
 
@@ -0,0 +1,164 @@
+package me.rexsystems.rexChat.commands.chat;
+
+import me.rexsystems.rexChat.RexChat;
+import me.rexsystems.rexChat.service.ChannelManager;
+import me.rexsystems.rexChat.service.ChannelManager.Channel;
+import me.rexsystems.rexChat.utils.MessageUtils;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Command handler for /channel - switch, join and leave chat channels.
+ */
+public class ChannelCommand implements CommandExecutor, TabCompleter {
+    private final RexChat plugin;
+
+    public ChannelCommand(RexChat plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage("§cThis command can only be used by players.");
+            return true;
+        }
+
+        ChannelManager manager = plugin.getChannelManager();
+        if (manager == null || !manager.isEnabled()) {
+            sendMessage(player, "&cChat channels are not enabled.");
+            return true;
+        }
+
+        String prefix = plugin.getConfigManager().getConfig().getString("messages.prefix", "");
+
+        if (args.length == 0) {
+            showChannelList(player, prefix);
+            return true;
+        }
+
+        String subCommand = args[0].toLowerCase();
+
+        switch (subCommand) {
+            case "off", "global", "reset" -> {
+                manager.setFocus(player, null);
+                sendMessage(player, prefix + "&aYou are now talking in normal chat.");
+            }
+            case "list" -> showChannelList(player, prefix);
+            case "join", "leave" -> {
+                if (args.length < 2) {
+                    sendMessage(player, prefix + "&eUsage: /" + label + " " + subCommand + " <channel>");
+                    return true;
+                }
+                Channel channel = findUsable(player, args[1], prefix);
+                if (channel == null) {
+                    return true;
+                }
+                if (subCommand.equals("join")) {
+                    manager.join(player, channel);
+                    sendMessage(player, prefix + "&aJoined channel " + channel.displayName() + "&a.");
+                } else {
+                    manager.leave(player, channel);
+                    sendMessage(player, prefix + "&aLeft channel " + channel.displayName() + "&a.");
+                }
+            }
+            default -> {
+                // Switch to the channel directly
+                Channel channel = findUsable(player, subCommand, prefix);
+                if (channel != null) {
+                    manager.setFocus(player, channel);
+                    sendMessage(player, prefix + "&aYou are now talking in " + channel.displayName() + "&a.");
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private Channel findUsable(Player player, String name, String prefix) {
+        ChannelManager manager = plugin.getChannelManager();
+        Channel channel = manager.getChannel(name);
+        if (channel == null) {
+            sendMessage(player, prefix + "&cChannel '&f" + name + "&c' not found.");
+            return null;
+        }
+        if (!manager.canUse(player, channel)) {
+            sendMessage(player, prefix + "&cYou don't have permission for this channel.");
+            return null;
+        }
+        return channel;
+    }
+
+    private void showChannelList(Player player, String prefix) {
+        ChannelManager manager = plugin.getChannelManager();
+        Channel focused = manager.getFocusedChannel(player);
+
+        sendMessage(player, prefix + "&6Chat Channels:");
+
+        boolean any = false;
+        for (Channel channel : manager.getChannels().values()) {
+            if (!manager.canUse(player, channel)) {
+                continue;
+            }
+            any = true;
+            String status = channel == focused ? " &a(talking)"
+                    : manager.isMember(player, channel) ? "" : " &7(left)";
+            sendMessage(player, "  &f" + channel.id() + " &7- " + channel.displayName() + " &7(" + channel.size()
+                    + " online)" + status);
+        }
+
+        if (!any) {
+            sendMessage(player, "  &7No channels available.");
+            return;
+        }
+
+        sendMessage(player, "");
+        sendMessage(player, "  &7Use &e/channel <channel> &7to talk in a channel.");
+        sendMessage(player, "  &7Use &e/channel off &7to return to normal chat.");
+        sendMessage(player, "  &7Use &e/channel join|leave <channel> &7to receive it or not.");
+    }
+
+    private void sendMessage(Player player, String message) {
+        MessageUtils.sendMessage(player, message);
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String label, String[] args) {
+        if (!(sender instanceof Player player)) {
+            return List.of();
+        }
+
+        ChannelManager manager = plugin.getChannelManager();
+        if (manager == null || !manager.isEnabled()) {
+            return List.of();
+        }
+
+        List<String> completions = new ArrayList<>();
+        List<String> usable = manager.getChannels().values().stream()
+                .filter(c -> manager.canUse(player, c))
+                .map(Channel::id)
+                .collect(Collectors.toList());
+
+        if (args.length == 1) {
+            completions.add("list");
+            completions.add("off");
+            completions.add("join");
+            completions.add("leave");
+            completions.addAll(usable);
+        } else if (args.length == 2 && (args[0].equalsIgnoreCase("join") || args[0].equalsIgnoreCase("leave"))) {
+            completions.addAll(usable);
+        }
+
+        String input = args[args.length - 1].toLowerCase();
+        return completions.stream()
+                .filter(s -> s.toLowerCase().startsWith(input))
+                .collect(Collectors.toList());
+    }
+}
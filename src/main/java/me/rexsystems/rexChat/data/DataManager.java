@@ -6,11 +6,28 @@ import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class DataManager {
+    private static final long DEFAULT_SAVE_INTERVAL_SECONDS = 5L;
+
     private final RexChat plugin;
     private final File dataFile;
     private FileConfiguration dataConfig;
+    // Set by saveData(), cleared when a flush takes the snapshot
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    // True while a background flush is scheduled
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    // Serializes set() against the snapshot taken for a flush
+    private final Object lock = new Object();
+    // Only one thread writes the file at a time
+    private final Object writeLock = new Object();
 
     public DataManager(RexChat plugin) {
         this.plugin = plugin;
@@ -25,15 +42,80 @@ public class DataManager {
         dataConfig = YamlConfiguration.loadConfiguration(dataFile);
     }
 
+    /**
+     * Set a value in data.yml. Use this instead of getData().set() so the change
+     * can't interleave with a background save.
+     */
+    public void set(String path, Object value) {
+        synchronized (lock) {
+            dataConfig.set(path, value);
+        }
+    }
+
+    /**
+     * Mark the data as changed. The file is written in the background at most once
+     * per storage.save-interval seconds, no matter how many changes happen in between.
+     */
     public void saveData() {
+        dirty.set(true);
+        if (!flushScheduled.compareAndSet(false, true))
+            return;
+
+        long interval = plugin.getConfigManager() != null
+                ? plugin.getConfigManager().getConfig().getLong("storage.save-interval", DEFAULT_SAVE_INTERVAL_SECONDS)
+                : DEFAULT_SAVE_INTERVAL_SECONDS;
+        try {
+            plugin.getServer().getAsyncScheduler().runDelayed(plugin, task -> {
+                flushScheduled.set(false);
+                flush();
+            }, Math.max(1L, interval), TimeUnit.SECONDS);
+        } catch (Throwable t) {
+            // Scheduler unavailable (e.g. plugin disabling): write now
+            flushScheduled.set(false);
+            flush();
+        }
+    }
+
+    /**
+     * Write pending changes immediately on the calling thread. Called on disable.
+     */
+    public void saveDataNow() {
+        flush();
+    }
+
+    private void flush() {
+        synchronized (writeLock) {
+            if (!dirty.getAndSet(false))
+                return;
+
+            String yaml;
+            synchronized (lock) {
+                yaml = dataConfig.saveToString();
+            }
+            try {
+                writeAtomically(yaml);
+            } catch (IOException e) {
+                // Keep the data dirty so the next save retries
+                dirty.set(true);
+                plugin.getLogger().severe("Could not save data.yml! " + e.getMessage());
+            }
+        }
+    }
+
+    // Write to a temp file next to data.yml and move it over, so a crash never leaves a half-written file
+    private void writeAtomically(String yaml) throws IOException {
+        Path target = dataFile.toPath();
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(dataFile.getName() + ".tmp");
+        Files.writeString(temp, yaml, StandardCharsets.UTF_8);
         try {
-            dataConfig.save(dataFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Could not save data.yml!");
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
     public FileConfiguration getData() {
         return dataConfig;
     }
-} 
\ No newline at end of file
+}
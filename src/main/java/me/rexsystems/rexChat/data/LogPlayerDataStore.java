@@ -0,0 +1,394 @@
+package me.rexsystems.rexChat.data;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary log of player records with an in-memory offset index.
+ *
+ * Every save appends one record; the index maps each UUID to the offset of its
+ * latest record, so only the index (not the data) is held in memory. When more
+ * than half of the file is superseded records, the live records are copied to a
+ * new file which atomically replaces the old one. A torn record at the end of the
+ * file (crash while appending) is detected by its checksum and cut off on open;
+ * a damaged record further in is skipped.
+ *
+ * File layout: header (magic, version), then records of
+ * [int payload length][int crc32][long msb][long lsb][byte flags][optional fields].
+ * Optional fields, each present if its flag is set, in this order: chat color
+ * (string), focused channel (string), left channels (short count + strings).
+ * Strings are a short length followed by UTF-8 bytes.
+ */
+public class LogPlayerDataStore implements PlayerDataStore {
+    private static final int MAGIC = 0x52435044; // "RCPD"
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER = 8;
+    private static final int RECORD_HEADER = 8;
+    private static final int MIN_PAYLOAD = 17;
+    private static final int MAX_PAYLOAD = 64 * 1024;
+    private static final int MAX_STRING = 1024;
+    private static final byte FLAG_PROXIMITY_BYPASS = 1;
+    private static final byte FLAG_CHAT_COLOR = 2;
+    private static final byte FLAG_CHANNEL = 4;
+    private static final byte FLAG_LEFT_CHANNELS = 8;
+    // Don't bother compacting small files
+    private static final long MIN_COMPACT_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final Map<UUID, Location> index = new ConcurrentHashMap<>();
+    private volatile FileChannel channel;
+    // Readers hold the read lock; compaction holds the write lock while swapping files
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    // Guarded by this
+    private long end;
+    private long liveBytes;
+    private int corruptRecords;
+
+    public LogPlayerDataStore(Path file) throws IOException {
+        this.file = file;
+        open();
+        compactIfNeeded();
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        index.clear();
+        liveBytes = 0;
+
+        if (ch.size() < FILE_HEADER) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER).putInt(MAGIC).putInt(VERSION).flip();
+            ch.truncate(0);
+            writeFully(ch, header, 0);
+            end = FILE_HEADER;
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER);
+            readFully(ch, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                ch.close();
+                throw new IOException("Not a RexChat player data file: " + file);
+            }
+            try {
+                end = scan(ch);
+            } catch (IOException e) {
+                ch.close();
+                throw e;
+            }
+            if (end < ch.size()) {
+                // Drop a partially written record left by a crash
+                ch.truncate(end);
+            }
+        }
+        channel = ch;
+    }
+
+    /*
+     * Rebuild the index; returns the offset after the last valid record. Only the
+     * tail may be cut off: a record running past the end, a bad last record, or
+     * zeros after the last record. A bad record with a sane length further in is
+     * skipped; a broken length further in leaves no way to find the next record,
+     * so the file is refused rather than losing everything after it.
+     */
+    private long scan(FileChannel ch) throws IOException {
+        long size = ch.size();
+        long pos = FILE_HEADER;
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+        corruptRecords = 0;
+        while (pos + RECORD_HEADER <= size) {
+            header.clear();
+            readFully(ch, header, pos);
+            header.flip();
+            int length = header.getInt();
+            int crc = header.getInt();
+            if (length < MIN_PAYLOAD || length > MAX_PAYLOAD) {
+                if (isZeroed(ch, pos, size))
+                    break;
+                throw new IOException("Corrupted player data record at offset " + pos + " in " + file
+                        + "; restore a backup or move the file away to start empty");
+            }
+            long next = pos + RECORD_HEADER + length;
+            if (next > size)
+                break;
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(ch, payload, pos + RECORD_HEADER);
+            if (crc(payload.array()) != crc) {
+                if (next == size)
+                    break;
+                corruptRecords++;
+                pos = next;
+                continue;
+            }
+            PlayerData data = decode(payload.flip());
+            track(data, pos, RECORD_HEADER + length);
+            pos += RECORD_HEADER + length;
+        }
+        return pos;
+    }
+
+    // Whether everything from pos to size is zero (space allocated but never written)
+    private static boolean isZeroed(FileChannel ch, long pos, long size) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        while (pos < size) {
+            buf.clear().limit((int) Math.min(buf.capacity(), size - pos));
+            readFully(ch, buf, pos);
+            for (int i = 0; i < buf.limit(); i++) {
+                if (buf.get(i) != 0)
+                    return false;
+            }
+            pos += buf.limit();
+        }
+        return true;
+    }
+
+    /**
+     * Records with a bad checksum that were skipped when the file was opened.
+     */
+    public int getCorruptRecords() {
+        return corruptRecords;
+    }
+
+    @Override
+    public PlayerData load(UUID uuid) throws IOException {
+        swapLock.readLock().lock();
+        try {
+            Location loc = index.get(uuid);
+            if (loc == null)
+                return PlayerData.empty(uuid);
+            return readRecord(channel, loc.offset());
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private PlayerData readRecord(FileChannel ch, long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+        readFully(ch, header, offset);
+        header.flip();
+        int length = header.getInt();
+        header.getInt();
+        if (length < MIN_PAYLOAD || length > MAX_PAYLOAD)
+            throw new IOException("Corrupt record at offset " + offset);
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(ch, payload, offset + RECORD_HEADER);
+        return decode(payload.flip());
+    }
+
+    @Override
+    public synchronized void save(PlayerData data) throws IOException {
+        if (data.isEmpty() && !index.containsKey(data.uuid()))
+            return;
+
+        ByteBuffer record = encode(data);
+        int size = record.remaining();
+        writeFully(channel, record, end);
+        track(data, end, size);
+        end += size;
+        compactIfNeeded();
+    }
+
+    // Update the index and live byte count for a record written at offset
+    private void track(PlayerData data, long offset, int size) {
+        Location previous = data.isEmpty()
+                ? index.remove(data.uuid()) // Empty data acts as a tombstone
+                : index.put(data.uuid(), new Location(offset, size));
+        if (previous != null)
+            liveBytes -= previous.size();
+        if (!data.isEmpty())
+            liveBytes += size;
+    }
+
+    private synchronized void compactIfNeeded() throws IOException {
+        if (end < MIN_COMPACT_SIZE || liveBytes * 2 > end - FILE_HEADER)
+            return;
+        compact();
+    }
+
+    /**
+     * Rewrite the file with only the latest record of each player.
+     */
+    public synchronized void compact() throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        Map<UUID, Location> moved = new HashMap<>();
+        long pos = FILE_HEADER;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(out, ByteBuffer.allocate(FILE_HEADER).putInt(MAGIC).putInt(VERSION).flip(), 0);
+            for (Map.Entry<UUID, Location> e : index.entrySet()) {
+                ByteBuffer record = encode(readRecord(channel, e.getValue().offset()));
+                int size = record.remaining();
+                writeFully(out, record, pos);
+                moved.put(e.getKey(), new Location(pos, size));
+                pos += size;
+            }
+            out.force(true);
+        }
+
+        swapLock.writeLock().lock();
+        try {
+            channel.close();
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            index.putAll(moved);
+            end = pos;
+            liveBytes = pos - FILE_HEADER;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Number of players with stored data.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Current file length in bytes, including superseded records.
+     */
+    public synchronized long fileSize() {
+        return end;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        FileChannel ch = channel;
+        if (ch != null && ch.isOpen()) {
+            ch.force(true);
+            ch.close();
+        }
+    }
+
+    private record Location(long offset, int size) {
+    }
+
+    private static ByteBuffer encode(PlayerData data) {
+        byte[] color = utf8(data.chatColor());
+        byte[] channel = utf8(data.channel());
+        List<byte[]> left = new ArrayList<>(data.leftChannels().size());
+        for (String name : data.leftChannels()) {
+            left.add(utf8(name));
+        }
+
+        int length = MIN_PAYLOAD;
+        byte flags = 0;
+        if (data.proximityBypass())
+            flags |= FLAG_PROXIMITY_BYPASS;
+        if (color != null) {
+            flags |= FLAG_CHAT_COLOR;
+            length += 2 + color.length;
+        }
+        if (channel != null) {
+            flags |= FLAG_CHANNEL;
+            length += 2 + channel.length;
+        }
+        if (!left.isEmpty()) {
+            flags |= FLAG_LEFT_CHANNELS;
+            length += 2;
+            for (byte[] name : left) {
+                length += 2 + name.length;
+            }
+        }
+        if (length > MAX_PAYLOAD)
+            throw new IllegalArgumentException("Player data too large");
+
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        payload.putLong(data.uuid().getMostSignificantBits());
+        payload.putLong(data.uuid().getLeastSignificantBits());
+        payload.put(flags);
+        if (color != null)
+            putString(payload, color);
+        if (channel != null)
+            putString(payload, channel);
+        if (!left.isEmpty()) {
+            payload.putShort((short) left.size());
+            for (byte[] name : left) {
+                putString(payload, name);
+            }
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + length);
+        record.putInt(length).putInt(crc(payload.array())).put(payload.array());
+        return record.flip();
+    }
+
+    private static PlayerData decode(ByteBuffer payload) {
+        UUID uuid = new UUID(payload.getLong(), payload.getLong());
+        byte flags = payload.get();
+        String color = (flags & FLAG_CHAT_COLOR) != 0 ? getString(payload) : null;
+        String channel = (flags & FLAG_CHANNEL) != 0 ? getString(payload) : null;
+        Set<String> left = new HashSet<>();
+        if ((flags & FLAG_LEFT_CHANNELS) != 0) {
+            int count = payload.getShort() & 0xFFFF;
+            for (int i = 0; i < count; i++) {
+                left.add(getString(payload));
+            }
+        }
+        return new PlayerData(uuid, color, (flags & FLAG_PROXIMITY_BYPASS) != 0, channel, left);
+    }
+
+    private static byte[] utf8(String s) {
+        if (s == null)
+            return null;
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING)
+            throw new IllegalArgumentException("Player data value too long");
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer buf, byte[] bytes) {
+        buf.putShort((short) bytes.length);
+        buf.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.getShort() & 0xFFFF];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, pos);
+            if (n < 0)
+                throw new EOFException("Unexpected end of player data file");
+            pos += n;
+        }
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) {
+            pos += ch.write(buf, pos);
+        }
+    }
+}
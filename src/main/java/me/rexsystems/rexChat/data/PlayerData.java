@@ -0,0 +1,58 @@
+package me.rexsystems.rexChat.data;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Persistent per-player settings.
+ *
+ * @param chatColor       selected chat color preset id (lowercase), or null
+ * @param proximityBypass true if the player toggled global chat with /rexchat global
+ * @param channel         channel the player's messages go to, or null for normal chat
+ * @param leftChannels    channels the player left with /channel leave
+ */
+public record PlayerData(UUID uuid, String chatColor, boolean proximityBypass, String channel,
+                         Set<String> leftChannels) {
+
+    public PlayerData {
+        leftChannels = leftChannels == null ? Set.of() : Set.copyOf(leftChannels);
+    }
+
+    public PlayerData(UUID uuid, String chatColor, boolean proximityBypass) {
+        this(uuid, chatColor, proximityBypass, null, Set.of());
+    }
+
+    public static PlayerData empty(UUID uuid) {
+        return new PlayerData(uuid, null, false);
+    }
+
+    public PlayerData withChatColor(String chatColor) {
+        return new PlayerData(uuid, chatColor, proximityBypass, channel, leftChannels);
+    }
+
+    public PlayerData withProximityBypass(boolean proximityBypass) {
+        return new PlayerData(uuid, chatColor, proximityBypass, channel, leftChannels);
+    }
+
+    public PlayerData withChannel(String channel) {
+        return new PlayerData(uuid, chatColor, proximityBypass, channel, leftChannels);
+    }
+
+    public PlayerData withChannelLeft(String channel, boolean left) {
+        Set<String> copy = new HashSet<>(leftChannels);
+        if (left) {
+            copy.add(channel);
+        } else {
+            copy.remove(channel);
+        }
+        return new PlayerData(uuid, chatColor, proximityBypass, this.channel, copy);
+    }
+
+    /**
+     * True if nothing differs from the defaults, so the record does not need to be stored.
+     */
+    public boolean isEmpty() {
+        return chatColor == null && !proximityBypass && channel == null && leftChannels.isEmpty();
+    }
+}
@@ -0,0 +1,161 @@
+package me.rexsystems.rexChat.data;
+
+import me.rexsystems.rexChat.RexChat;
+import me.rexsystems.rexChat.utils.SchedulerUtils;
+import org.bukkit.entity.Player;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+
+/**
+ * Per-player data for online players, backed by a {@link PlayerDataStore}.
+ * Records are loaded on async pre-login and kept in memory until quit; changes
+ * are applied in memory immediately and written by a background drain, so
+ * chat and command threads never touch the disk.
+ */
+public class PlayerDataManager {
+    private final RexChat plugin;
+    private final PlayerDataStore store;
+    private final Map<UUID, PlayerData> online = new ConcurrentHashMap<>();
+    // Latest unsaved data per player; a drain writes and removes entries
+    private final Map<UUID, PlayerData> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    // Drains never overlap, so the newest pending value is always written last
+    private final Object drainLock = new Object();
+
+    public PlayerDataManager(RexChat plugin, PlayerDataStore store) {
+        this.plugin = plugin;
+        this.store = store;
+    }
+
+    public PlayerDataStore getStore() {
+        return store;
+    }
+
+    /**
+     * Load a player's data into memory. Called from AsyncPlayerPreLoginEvent.
+     */
+    public void load(UUID uuid) {
+        online.put(uuid, read(uuid));
+    }
+
+    /**
+     * Forget an online player's data (on quit). Pending changes are still written.
+     */
+    public void unload(UUID uuid) {
+        online.remove(uuid);
+    }
+
+    /**
+     * Get a player's data. Served from memory for online players; otherwise read from the store.
+     */
+    public PlayerData get(UUID uuid) {
+        PlayerData data = online.get(uuid);
+        return data != null ? data : read(uuid);
+    }
+
+    public PlayerData get(Player player) {
+        PlayerData data = online.get(player.getUniqueId());
+        if (data != null)
+            return data;
+        // Not loaded yet (e.g. players online during /reload): load now and keep it
+        data = read(player.getUniqueId());
+        if (player.isOnline())
+            online.putIfAbsent(player.getUniqueId(), data);
+        return data;
+    }
+
+    /**
+     * Change a player's data and queue it for writing.
+     */
+    public PlayerData update(UUID uuid, UnaryOperator<PlayerData> change) {
+        // Queue the value inside the same atomic step, so concurrent updates can't
+        // leave an older value pending than the one kept in memory
+        PlayerData updated = online.computeIfPresent(uuid, (id, current) -> {
+            PlayerData next = change.apply(current);
+            pending.put(id, next);
+            return next;
+        });
+        if (updated == null)
+            updated = pending.compute(uuid, (id, queued) -> change.apply(queued != null ? queued : readStore(id)));
+        scheduleDrain();
+        return updated;
+    }
+
+    /**
+     * True if the player switched to global chat with /rexchat global. A map lookup, no I/O.
+     */
+    public boolean isGlobalChat(Player player) {
+        return get(player).proximityBypass();
+    }
+
+    public void setGlobalChat(UUID uuid, boolean global) {
+        update(uuid, data -> data.withProximityBypass(global));
+    }
+
+    private PlayerData read(UUID uuid) {
+        PlayerData queued = pending.get(uuid);
+        return queued != null ? queued : readStore(uuid);
+    }
+
+    private PlayerData readStore(UUID uuid) {
+        try {
+            return store.load(uuid);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not load player data for " + uuid + ": " + e.getMessage());
+            return PlayerData.empty(uuid);
+        }
+    }
+
+    private void scheduleDrain() {
+        if (!drainScheduled.compareAndSet(false, true))
+            return;
+        try {
+            SchedulerUtils.runAsync(plugin, () -> {
+                drainScheduled.set(false);
+                drain();
+            });
+        } catch (Throwable t) {
+            // Scheduler unavailable (plugin disabling): write now
+            drainScheduled.set(false);
+            drain();
+        }
+    }
+
+    private void drain() {
+        synchronized (drainLock) {
+            if (pending.isEmpty())
+                return;
+            List<PlayerData> batch = new ArrayList<>(pending.values());
+            try {
+                store.saveAll(batch);
+            } catch (IOException e) {
+                // Left pending; retried by the next drain
+                plugin.getLogger().severe("Could not save player data: " + e.getMessage());
+                return;
+            }
+            for (PlayerData data : batch) {
+                // Only drop it if no newer change arrived while writing
+                pending.remove(data.uuid(), data);
+            }
+        }
+    }
+
+    /**
+     * Write everything still pending and close the store. Called on disable.
+     */
+    public void close() {
+        drain();
+        try {
+            store.close();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not close player data store: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package me.rexsystems.rexChat.data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Storage backend for {@link PlayerData}. Implementations must be safe to call
+ * from multiple threads; RexChat loads on async pre-login and saves from a
+ * background writer, never from the chat thread.
+ */
+public interface PlayerDataStore extends Closeable {
+
+    /**
+     * Load a player's data, or {@link PlayerData#empty(UUID)} if nothing is stored.
+     */
+    PlayerData load(UUID uuid) throws IOException;
+
+    /**
+     * Store a player's data, replacing any previous record. Empty data may be deleted.
+     */
+    void save(PlayerData data) throws IOException;
+
+    /**
+     * Store several players at once. Backends that support it write the batch in one go.
+     */
+    default void saveAll(Collection<PlayerData> batch) throws IOException {
+        for (PlayerData data : batch) {
+            save(data);
+        }
+    }
+
+    /**
+     * Flush and release the backend. No other method is called afterwards.
+     */
+    @Override
+    void close() throws IOException;
+}
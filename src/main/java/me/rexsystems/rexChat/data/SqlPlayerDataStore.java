@@ -0,0 +1,202 @@
+package me.rexsystems.rexChat.data;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Player data in an embedded SQL database (SQLite or H2) over JDBC.
+ *
+ * Uses one connection and prepared statements; all access is serialized on the
+ * store. Batches from {@link #saveAll(Collection)} run in a single transaction.
+ */
+public class SqlPlayerDataStore implements PlayerDataStore {
+
+    public enum Dialect {
+        SQLITE("org.sqlite.JDBC",
+                "INSERT INTO rexchat_players (uuid, chat_color, proximity_bypass, channel, left_channels) "
+                        + "VALUES (?, ?, ?, ?, ?) "
+                        + "ON CONFLICT(uuid) DO UPDATE SET chat_color = excluded.chat_color, "
+                        + "proximity_bypass = excluded.proximity_bypass, channel = excluded.channel, "
+                        + "left_channels = excluded.left_channels"),
+        H2("org.h2.Driver",
+                "MERGE INTO rexchat_players (uuid, chat_color, proximity_bypass, channel, left_channels) "
+                        + "KEY (uuid) VALUES (?, ?, ?, ?, ?)");
+
+        private final String driver;
+        private final String upsert;
+
+        Dialect(String driver, String upsert) {
+            this.driver = driver;
+            this.upsert = upsert;
+        }
+    }
+
+    private final Connection connection;
+    private final PreparedStatement select;
+    private final PreparedStatement upsert;
+    private final PreparedStatement delete;
+
+    /**
+     * Open (and create if needed) an SQLite database file.
+     */
+    public static SqlPlayerDataStore sqlite(Path file) throws IOException {
+        return new SqlPlayerDataStore("jdbc:sqlite:" + file.toAbsolutePath(), Dialect.SQLITE, file);
+    }
+
+    /**
+     * Open (and create if needed) an H2 database; the file is named base + ".mv.db".
+     */
+    public static SqlPlayerDataStore h2(Path base) throws IOException {
+        return new SqlPlayerDataStore("jdbc:h2:file:" + base.toAbsolutePath(), Dialect.H2, base);
+    }
+
+    private SqlPlayerDataStore(String url, Dialect dialect, Path file) throws IOException {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Class.forName(dialect.driver);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("JDBC driver " + dialect.driver + " not found", e);
+        }
+
+        try {
+            connection = DriverManager.getConnection(url);
+            try (Statement st = connection.createStatement()) {
+                if (dialect == Dialect.SQLITE) {
+                    // Appends to a write-ahead log instead of rewriting pages in place
+                    st.execute("PRAGMA journal_mode=WAL");
+                    st.execute("PRAGMA synchronous=NORMAL");
+                }
+                st.execute("CREATE TABLE IF NOT EXISTS rexchat_players ("
+                        + "uuid CHAR(36) PRIMARY KEY, "
+                        + "chat_color VARCHAR(64), "
+                        + "proximity_bypass BOOLEAN NOT NULL DEFAULT FALSE, "
+                        + "channel VARCHAR(64), "
+                        + "left_channels VARCHAR(1024))");
+                // Columns added after the first release
+                addColumnIfMissing(st, "channel", "VARCHAR(64)");
+                addColumnIfMissing(st, "left_channels", "VARCHAR(1024)");
+            }
+            select = connection.prepareStatement(
+                    "SELECT chat_color, proximity_bypass, channel, left_channels FROM rexchat_players WHERE uuid = ?");
+            upsert = connection.prepareStatement(dialect.upsert);
+            delete = connection.prepareStatement("DELETE FROM rexchat_players WHERE uuid = ?");
+        } catch (SQLException e) {
+            throw new IOException("Could not open player database " + url + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized PlayerData load(UUID uuid) throws IOException {
+        try {
+            select.setString(1, uuid.toString());
+            try (ResultSet rs = select.executeQuery()) {
+                if (!rs.next())
+                    return PlayerData.empty(uuid);
+                return new PlayerData(uuid, rs.getString(1), rs.getBoolean(2), rs.getString(3),
+                        splitChannels(rs.getString(4)));
+            }
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void save(PlayerData data) throws IOException {
+        saveAll(List.of(data));
+    }
+
+    @Override
+    public synchronized void saveAll(Collection<PlayerData> batch) throws IOException {
+        if (batch.isEmpty())
+            return;
+        try {
+            connection.setAutoCommit(false);
+            try {
+                boolean upserts = false;
+                boolean deletes = false;
+                for (PlayerData data : batch) {
+                    if (data.isEmpty()) {
+                        delete.setString(1, data.uuid().toString());
+                        delete.addBatch();
+                        deletes = true;
+                    } else {
+                        upsert.setString(1, data.uuid().toString());
+                        upsert.setString(2, data.chatColor());
+                        upsert.setBoolean(3, data.proximityBypass());
+                        upsert.setString(4, data.channel());
+                        upsert.setString(5, data.leftChannels().isEmpty()
+                                ? null : String.join(",", data.leftChannels()));
+                        upsert.addBatch();
+                        upserts = true;
+                    }
+                }
+                if (upserts)
+                    upsert.executeBatch();
+                if (deletes)
+                    delete.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                upsert.clearBatch();
+                delete.clearBatch();
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private void addColumnIfMissing(Statement st, String column, String type) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        // H2 reports unquoted identifiers in upper case
+        try (ResultSet lower = meta.getColumns(null, null, "rexchat_players", column);
+             ResultSet upper = meta.getColumns(null, null, "REXCHAT_PLAYERS", column.toUpperCase())) {
+            if (lower.next() || upper.next())
+                return;
+        }
+        st.execute("ALTER TABLE rexchat_players ADD COLUMN " + column + " " + type);
+    }
+
+    private static Set<String> splitChannels(String joined) {
+        if (joined == null || joined.isEmpty())
+            return Set.of();
+        return new HashSet<>(Arrays.asList(joined.split(",")));
+    }
+
+    /**
+     * Number of players with stored data.
+     */
+    public synchronized int size() throws IOException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM rexchat_players")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
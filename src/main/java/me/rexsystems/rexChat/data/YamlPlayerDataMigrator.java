@@ -0,0 +1,80 @@
+package me.rexsystems.rexChat.data;
+
+import me.rexsystems.rexChat.RexChat;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One-time import of the per-player sections (chatcolor.&lt;uuid&gt; and
+ * proximity-bypass.&lt;uuid&gt;) from data.yml into a {@link PlayerDataStore}.
+ * After a successful import the sections are removed from data.yml; a copy of
+ * the original file is kept as data.yml.bak.
+ */
+public final class YamlPlayerDataMigrator {
+
+    private YamlPlayerDataMigrator() {
+    }
+
+    /**
+     * @return number of players imported (0 if there was nothing to migrate)
+     */
+    public static int migrate(RexChat plugin, DataManager dataManager, PlayerDataStore store) throws IOException {
+        FileConfiguration data = dataManager.getData();
+        ConfigurationSection colors = data.getConfigurationSection("chatcolor");
+        ConfigurationSection bypass = data.getConfigurationSection("proximity-bypass");
+        if (colors == null && bypass == null)
+            return 0;
+
+        Map<UUID, PlayerData> players = new HashMap<>();
+        if (colors != null) {
+            for (String key : colors.getKeys(false)) {
+                UUID uuid = parseUuid(key);
+                String color = colors.getString(key, null);
+                if (uuid == null || color == null)
+                    continue;
+                players.merge(uuid, PlayerData.empty(uuid).withChatColor(color.toLowerCase()),
+                        (a, b) -> a.withChatColor(b.chatColor()));
+            }
+        }
+        if (bypass != null) {
+            for (String key : bypass.getKeys(false)) {
+                UUID uuid = parseUuid(key);
+                if (uuid == null || !bypass.getBoolean(key, false))
+                    continue;
+                players.merge(uuid, PlayerData.empty(uuid).withProximityBypass(true),
+                        (a, b) -> a.withProximityBypass(true));
+            }
+        }
+
+        for (PlayerData player : players.values()) {
+            store.save(player);
+        }
+
+        File dataFile = new File(plugin.getDataFolder(), "data.yml");
+        if (dataFile.exists()) {
+            Files.copy(dataFile.toPath(), new File(plugin.getDataFolder(), "data.yml.bak").toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        dataManager.set("chatcolor", null);
+        dataManager.set("proximity-bypass", null);
+        dataManager.saveData();
+        dataManager.saveDataNow();
+        return players.size();
+    }
+
+    private static UUID parseUuid(String key) {
+        try {
+            return UUID.fromString(key);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package me.rexsystems.rexChat.listener;
+
+import me.rexsystems.rexChat.RexChat;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
+
+/**
+ * Keeps the proximity chat index in sync with player positions.
+ * Movement within a chunk is ignored; only chunk and world changes update the index.
+ */
+public class ProximityListener implements Listener {
+
+    private final RexChat plugin;
+
+    public ProximityListener(RexChat plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        plugin.getProximityManager().track(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        plugin.getProximityManager().untrack(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (to == null)
+            return;
+        if ((from.getBlockX() >> 4) == (to.getBlockX() >> 4) && (from.getBlockZ() >> 4) == (to.getBlockZ() >> 4)
+                && from.getWorld() == to.getWorld())
+            return;
+        plugin.getProximityManager().moved(event.getPlayer(), to);
+    }
+
+    // Mounted players (boats, minecarts, horses) get no PlayerMoveEvent
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onVehicleMove(VehicleMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if ((from.getBlockX() >> 4) == (to.getBlockX() >> 4) && (from.getBlockZ() >> 4) == (to.getBlockZ() >> 4)
+                && from.getWorld() == to.getWorld())
+            return;
+        movePassengers(event.getVehicle(), to);
+    }
+
+    private void movePassengers(Entity vehicle, Location to) {
+        for (Entity passenger : vehicle.getPassengers()) {
+            if (passenger instanceof Player) {
+                plugin.getProximityManager().moved((Player) passenger, to);
+            }
+            movePassengers(passenger, to);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event) {
+        if (event.getTo() != null) {
+            plugin.getProximityManager().moved(event.getPlayer(), event.getTo());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent event) {
+        plugin.getProximityManager().moved(event.getPlayer(), event.getRespawnLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        plugin.getProximityManager().moved(event.getPlayer(), event.getPlayer().getLocation());
+    }
+}
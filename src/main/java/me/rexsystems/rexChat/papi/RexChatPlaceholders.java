@@ -47,6 +47,14 @@ public class RexChatPlaceholders extends PlaceholderExpansion {
             return String.valueOf(plugin.getChatManager().isChatMuted());
         }
 
+        // Chat queue metrics
+        if (params.equalsIgnoreCase("queue_depth")) {
+            return String.valueOf(plugin.getChatQueue().getDepth());
+        }
+        if (params.equalsIgnoreCase("queue_shed")) {
+            return String.valueOf(plugin.getChatQueue().getShedCount() + plugin.getChatQueue().getExpiredCount());
+        }
+
         // Handle player-specific placeholders (require online player)
         if (player == null || !player.isOnline()) {
             return null;
@@ -66,7 +74,7 @@ public class RexChatPlaceholders extends PlaceholderExpansion {
                 return "None";
             }
 
-            ChatColorManager.ChatColorPreset preset = colorManager.getPreset(colorName);
+            ChatColorManager.ChatColorPreset preset = colorManager.getSelectedPreset(onlinePlayer);
             if (preset != null && preset.displayName() != null) {
                 return preset.displayName();
             }
@@ -86,7 +94,7 @@ public class RexChatPlaceholders extends PlaceholderExpansion {
                 return "";
             }
 
-            ChatColorManager.ChatColorPreset preset = colorManager.getPreset(colorName);
+            ChatColorManager.ChatColorPreset preset = colorManager.getSelectedPreset(onlinePlayer);
             return preset != null ? preset.format() : "";
         }
 
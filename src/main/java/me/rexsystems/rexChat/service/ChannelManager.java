@@ -0,0 +1,275 @@
+package me.rexsystems.rexChat.service;
+
+import me.rexsystems.rexChat.RexChat;
+import me.rexsystems.rexChat.data.PlayerData;
+import me.rexsystems.rexChat.utils.ChatFormatTemplate;
+import me.rexsystems.rexChat.utils.SlotRegistry;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Named chat channels (e.g. staff, trade, world).
+ *
+ * Players are in every channel they may use unless they left it; a player
+ * focused on a channel sends their chat there. Membership is a bit set over
+ * the online player slots, so delivery walks only the members. Focus and left
+ * channels are stored with the player's data.
+ */
+public class ChannelManager {
+    private final RexChat plugin;
+    private final SlotRegistry<Player> slots;
+    // Keyed by lowercase id, in config order
+    private volatile Map<String, Channel> channels = Collections.emptyMap();
+
+    public ChannelManager(RexChat plugin, SlotRegistry<Player> slots) {
+        this.plugin = plugin;
+        this.slots = slots;
+        // A quitting player's slot may be reused; drop it from every channel first
+        slots.addReleaseListener(slot -> {
+            for (Channel channel : channels.values()) {
+                channel.remove(slot);
+            }
+        });
+        // Channels granted mid-session (e.g. a LuckPerms rank up) are joined right away
+        plugin.getPermissionCache().addInvalidationListener(uuid -> {
+            if (uuid == null) {
+                refreshMembership();
+                return;
+            }
+            int slot = slots.slot(uuid);
+            Player player = slot >= 0 ? slots.get(slot) : null;
+            if (player != null)
+                playerJoined(player);
+        });
+        loadChannels();
+    }
+
+    public static final class Channel {
+        private final String id;
+        private final String displayName;
+        private final String permission;
+        private final ChatFormatTemplate format;
+        private final boolean worldOnly;
+        private final double radius;
+        private final Object lock = new Object();
+        // Copy-on-write: readers use the current set without locking
+        private volatile BitSet members = new BitSet();
+
+        Channel(String id, String displayName, String permission, ChatFormatTemplate format, boolean worldOnly,
+                double radius) {
+            this.id = id;
+            this.displayName = displayName;
+            this.permission = permission;
+            this.format = format;
+            this.worldOnly = worldOnly;
+            this.radius = radius;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public String displayName() {
+            return displayName;
+        }
+
+        /**
+         * Permission needed to use the channel, or empty.
+         */
+        public String permission() {
+            return permission;
+        }
+
+        /**
+         * Channel format, or null to use the player's normal chat format.
+         */
+        public ChatFormatTemplate format() {
+            return format;
+        }
+
+        public boolean worldOnly() {
+            return worldOnly;
+        }
+
+        /**
+         * Delivery radius in blocks, 0 for unlimited.
+         */
+        public double radius() {
+            return radius;
+        }
+
+        public int size() {
+            return members.cardinality();
+        }
+
+        boolean isMember(int slot) {
+            return slot >= 0 && members.get(slot);
+        }
+
+        void add(int slot) {
+            synchronized (lock) {
+                if (members.get(slot))
+                    return;
+                BitSet copy = (BitSet) members.clone();
+                copy.set(slot);
+                members = copy;
+            }
+        }
+
+        void remove(int slot) {
+            synchronized (lock) {
+                if (!members.get(slot))
+                    return;
+                BitSet copy = (BitSet) members.clone();
+                copy.clear(slot);
+                members = copy;
+            }
+        }
+    }
+
+    /**
+     * Read channels.list from config and rebuild membership of online players.
+     * Called on enable and reload.
+     */
+    public void loadChannels() {
+        FileConfiguration cfg = plugin.getConfigManager().getConfig();
+        String prefix = cfg.getString("messages.prefix", "");
+        Map<String, Channel> loaded = new LinkedHashMap<>();
+        ConfigurationSection section = cfg.getConfigurationSection("channels.list");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                ConfigurationSection c = section.getConfigurationSection(key);
+                if (c == null)
+                    continue;
+                String id = key.toLowerCase();
+                String format = c.getString("format", null);
+                loaded.put(id, new Channel(id, c.getString("display-name", key), c.getString("permission", ""),
+                        format != null && !format.isEmpty()
+                                ? ChatFormatManager.compile(format.replace("%rc_prefix%", prefix)) : null,
+                        c.getBoolean("world-only", false), Math.max(0, c.getDouble("radius", 0))));
+            }
+        }
+        this.channels = Collections.unmodifiableMap(loaded);
+
+        refreshMembership();
+    }
+
+    public boolean isEnabled() {
+        return plugin.getConfigManager().getConfig().getBoolean("channels.enabled", false);
+    }
+
+    public Map<String, Channel> getChannels() {
+        return channels;
+    }
+
+    public Channel getChannel(String id) {
+        return id != null ? channels.get(id.toLowerCase()) : null;
+    }
+
+    public boolean canUse(Player player, Channel channel) {
+        return channel.permission().isEmpty() || plugin.getPermissionCache().has(player, channel.permission());
+    }
+
+    /**
+     * Add a player to every channel they may use and have not left. Called after
+     * the player got their slot on join, and again when their permissions change.
+     */
+    public void playerJoined(Player player) {
+        if (slots.slot(player.getUniqueId()) < 0)
+            return;
+        PlayerData data = plugin.getPlayerDataManager().get(player);
+        List<Channel> granted = new ArrayList<>();
+        for (Channel channel : channels.values()) {
+            if (canUse(player, channel) && !data.leftChannels().contains(channel.id())) {
+                granted.add(channel);
+            }
+        }
+        // Also runs async and on LuckPerms' threads: the player may have quit since
+        // the permission checks, so only add while the slot is still theirs
+        slots.withSlot(player.getUniqueId(), slot -> {
+            for (Channel channel : granted) {
+                channel.add(slot);
+            }
+        });
+    }
+
+    /**
+     * Add online players to channels they were granted since joining. Run
+     * periodically for permission changes that are not announced (no LuckPerms).
+     */
+    public void refreshMembership() {
+        slots.forEach(slots.occupied(), this::playerJoined);
+    }
+
+    public boolean isMember(Player player, Channel channel) {
+        return channel.isMember(slots.slot(player.getUniqueId()));
+    }
+
+    public void join(Player player, Channel channel) {
+        slots.withSlot(player.getUniqueId(), channel::add);
+        plugin.getPlayerDataManager().update(player.getUniqueId(), d -> d.withChannelLeft(channel.id(), false));
+    }
+
+    /**
+     * Leave a channel; also stops talking in it if it was focused.
+     */
+    public void leave(Player player, Channel channel) {
+        int slot = slots.slot(player.getUniqueId());
+        if (slot >= 0)
+            channel.remove(slot);
+        plugin.getPlayerDataManager().update(player.getUniqueId(), d -> {
+            PlayerData left = d.withChannelLeft(channel.id(), true);
+            return channel.id().equals(d.channel()) ? left.withChannel(null) : left;
+        });
+    }
+
+    /**
+     * Channel the player is talking in, or null for normal chat.
+     */
+    public Channel getFocusedChannel(Player player) {
+        return getChannel(plugin.getPlayerDataManager().get(player).channel());
+    }
+
+    /**
+     * Talk in a channel (joining it if needed), or in normal chat if channel is null.
+     */
+    public void setFocus(Player player, Channel channel) {
+        if (channel != null && !isMember(player, channel)) {
+            join(player, channel);
+        }
+        plugin.getPlayerDataManager().update(player.getUniqueId(),
+                d -> d.withChannel(channel != null ? channel.id() : null));
+    }
+
+    /**
+     * Slots of the members who receive a message from sender: only members are
+     * visited. Members who lost the channel permission since joining are skipped.
+     */
+    public BitSet recipients(Channel channel, Player sender) {
+        World world = channel.worldOnly() || channel.radius() > 0 ? sender.getWorld() : null;
+        Location origin = channel.radius() > 0 ? sender.getLocation() : null;
+        double radiusSquared = channel.radius() * channel.radius();
+        BitSet recipients = slots.select(channel.members, p -> {
+            if (p == sender)
+                return true;
+            if (!canUse(p, channel))
+                return false;
+            if (world != null && !world.equals(p.getWorld()))
+                return false;
+            return origin == null || p.getLocation().distanceSquared(origin) <= radiusSquared;
+        });
+        // Sender always sees their own message
+        slots.mark(recipients, sender.getUniqueId());
+        return recipients;
+    }
+}
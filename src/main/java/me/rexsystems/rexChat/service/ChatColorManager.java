@@ -4,7 +4,6 @@ import me.rexsystems.rexChat.RexChat;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -17,6 +16,8 @@ public class ChatColorManager {
     private final Map<String, ChatColorPreset> presets = new LinkedHashMap<>();
     // Cached token pattern for applyPlayerColor - rebuilt when presets reload
     private volatile java.util.regex.Pattern cachedTokenPattern;
+    // Selected color per online player, loaded on join and evicted on quit
+    private final Map<UUID, PlayerColorState> playerStates = new java.util.concurrent.ConcurrentHashMap<>();
 
     public ChatColorManager(RexChat plugin) {
         this.plugin = plugin;
@@ -51,6 +52,10 @@ public class ChatColorManager {
             presets.put(key.toLowerCase(), new ChatColorPreset(key, format, permission, displayName));
         }
 
+        // Re-resolve cached selections against the new presets
+        playerStates.replaceAll((uuid, state) -> new PlayerColorState(state.colorName(),
+                state.colorName() != null ? presets.get(state.colorName()) : null));
+
         plugin.getLogUtils().debug("Loaded " + presets.size() + " chat color presets");
     }
 
@@ -82,24 +87,75 @@ public class ChatColorManager {
     }
 
     /**
-     * Get the player's selected color from data.yml.
+     * Load the player's selected color from data.yml into memory (on join).
+     */
+    public void loadPlayer(Player player) {
+        playerStates.put(player.getUniqueId(), readState(player.getUniqueId()));
+    }
+
+    /**
+     * Drop the cached selection of a player (on quit).
+     */
+    public void unloadPlayer(UUID uuid) {
+        playerStates.remove(uuid);
+    }
+
+    private PlayerColorState readState(UUID uuid) {
+        String colorName = plugin.getPlayerDataManager().get(uuid).chatColor();
+        return new PlayerColorState(colorName, colorName != null ? presets.get(colorName) : null);
+    }
+
+    private PlayerColorState getState(Player player) {
+        PlayerColorState state = playerStates.get(player.getUniqueId());
+        if (state != null)
+            return state;
+        state = readState(player.getUniqueId());
+        // Don't resurrect an entry for a player that already quit
+        if (player.isOnline())
+            playerStates.putIfAbsent(player.getUniqueId(), state);
+        return state;
+    }
+
+    /**
+     * Get the player's selected color.
      */
     public String getPlayerColor(Player player) {
-        return plugin.getDataManager().getData()
-                .getString("chatcolor." + player.getUniqueId().toString(), null);
+        return getState(player).colorName();
+    }
+
+    /**
+     * Get the preset the player selected, without checking permission. Null if none or unknown.
+     */
+    public ChatColorPreset getSelectedPreset(Player player) {
+        return getState(player).preset();
+    }
+
+    /**
+     * Get the preset to apply to the player's messages: their selection, if it still
+     * exists and they still have its permission (checked through the permission
+     * cache on every message). A selection whose permission was lost is removed.
+     */
+    public ChatColorPreset getActivePreset(Player player) {
+        PlayerColorState state = getState(player);
+        if (state.preset() == null)
+            return null;
+
+        if (!plugin.getPermissionCache().has(player, state.preset().permission())) {
+            // Remove their selection since they lost permission
+            setPlayerColor(player, null);
+            return null;
+        }
+        return state.preset();
     }
 
     /**
      * Set the player's selected color.
      */
     public void setPlayerColor(Player player, String colorName) {
-        if (colorName == null) {
-            plugin.getDataManager().getData().set("chatcolor." + player.getUniqueId().toString(), null);
-        } else {
-            plugin.getDataManager().getData().set("chatcolor." + player.getUniqueId().toString(),
-                    colorName.toLowerCase());
-        }
-        plugin.getDataManager().saveData();
+        String key = colorName != null ? colorName.toLowerCase() : null;
+        plugin.getPlayerDataManager().update(player.getUniqueId(), data -> data.withChatColor(key));
+        playerStates.put(player.getUniqueId(),
+                new PlayerColorState(key, key != null ? presets.get(key) : null));
     }
 
     /**
@@ -108,21 +164,16 @@ public class ChatColorManager {
      * IMPORTANT: Does NOT color preview tokens like [item], [i], [inv], [inventory].
      */
     public String applyPlayerColor(Player player, String message) {
-        String colorName = getPlayerColor(player);
-        if (colorName == null)
-            return message;
+        return applyPlayerColor(getActivePreset(player), message);
+    }
 
-        ChatColorPreset preset = getPreset(colorName);
+    /**
+     * Apply an already resolved preset to a message; a null preset leaves it unchanged.
+     */
+    public String applyPlayerColor(ChatColorPreset preset, String message) {
         if (preset == null)
             return message;
 
-        // Check if player still has permission for this color
-        if (!player.hasPermission(preset.permission())) {
-            // Remove their selection since they lost permission
-            setPlayerColor(player, null);
-            return message;
-        }
-
         // Get or build cached token pattern
         java.util.regex.Pattern pattern = cachedTokenPattern;
         if (pattern == null) {
@@ -201,6 +252,12 @@ public class ChatColorManager {
         return plugin.getConfigManager().getConfig().getBoolean("chatcolor.enabled", true);
     }
 
+    /**
+     * Cached selection of one player.
+     */
+    private record PlayerColorState(String colorName, ChatColorPreset preset) {
+    }
+
     /**
      * Represents a chat color preset.
      */
@@ -0,0 +1,109 @@
+package me.rexsystems.rexChat.service;
+
+import me.rexsystems.rexChat.RexChat;
+import me.rexsystems.rexChat.utils.ChatFormatTemplate;
+import me.rexsystems.rexChat.utils.PapiUtils;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Holds the compiled chat-format.format and chat-format.groups.&lt;g&gt;.format
+ * templates. Rebuilt on enable and on /rexchat reload.
+ */
+public class ChatFormatManager {
+    private static final String DEFAULT_FORMAT = "%rc_prefix%&7{player}: &f{message}";
+
+    private final RexChat plugin;
+    private volatile ChatFormatTemplate defaultFormat = ChatFormatTemplate.compile(DEFAULT_FORMAT);
+    // Keyed by the group name exactly as written in config, in config order
+    private volatile Map<String, GroupFormat> groupFormats = Collections.emptyMap();
+
+    public ChatFormatManager(RexChat plugin) {
+        this.plugin = plugin;
+        loadFormats();
+    }
+
+    /**
+     * Compile all chat formats from config. %rc_prefix% and the static
+     * PlaceholderAPI placeholders are substituted here since they only change
+     * on reload.
+     */
+    public void loadFormats() {
+        FileConfiguration cfg = plugin.getConfigManager().getConfig();
+        String prefix = cfg.getString("messages.prefix", "");
+
+        this.defaultFormat = compile(cfg.getString("chat-format.format", DEFAULT_FORMAT), prefix);
+
+        Map<String, GroupFormat> groups = new LinkedHashMap<>();
+        ConfigurationSection section = cfg.getConfigurationSection("chat-format.groups");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                if (!section.isString(key + ".format"))
+                    continue;
+                String fmt = section.getString(key + ".format");
+                if (fmt == null || fmt.isEmpty())
+                    continue;
+                String permission = section.getString(key + ".permission", null);
+                groups.put(key, new GroupFormat(key, permission, compile(fmt, prefix)));
+            }
+        }
+        this.groupFormats = Collections.unmodifiableMap(groups);
+
+        int session = 0;
+        int perMessage = 0;
+        java.util.List<ChatFormatTemplate> templates = new java.util.ArrayList<>();
+        templates.add(defaultFormat);
+        groups.values().forEach(g -> templates.add(g.template()));
+        for (ChatFormatTemplate template : templates) {
+            for (String name : template.getExternalPlaceholders()) {
+                if (PapiUtils.isSession(name)) {
+                    session++;
+                } else {
+                    perMessage++;
+                }
+            }
+        }
+        plugin.getLogUtils().debug("Compiled " + (groups.size() + 1) + " chat formats ("
+                + session + " per-session, " + perMessage + " per-message placeholders)");
+    }
+
+    private ChatFormatTemplate compile(String format, String prefix) {
+        return compile(format.replace("%rc_prefix%", prefix));
+    }
+
+    /**
+     * Compile a chat format with its static PlaceholderAPI placeholders filled in.
+     */
+    public static ChatFormatTemplate compile(String format) {
+        return PapiUtils.expandStatic(ChatFormatTemplate.compile(format));
+    }
+
+    public ChatFormatTemplate getDefaultFormat() {
+        return defaultFormat;
+    }
+
+    /**
+     * Get the compiled format for a group key, or null if the group has no format.
+     */
+    public ChatFormatTemplate getGroupFormat(String group) {
+        GroupFormat gf = groupFormats.get(group);
+        return gf != null ? gf.template() : null;
+    }
+
+    /**
+     * All groups that define a format, in config order.
+     */
+    public Map<String, GroupFormat> getGroupFormats() {
+        return groupFormats;
+    }
+
+    /**
+     * A compiled group format with its optional explicit permission.
+     */
+    public record GroupFormat(String group, String permission, ChatFormatTemplate template) {
+    }
+}
@@ -0,0 +1,186 @@
+package me.rexsystems.rexChat.service;
+
+import me.rexsystems.rexChat.RexChat;
+import me.rexsystems.rexChat.utils.FairQueue;
+import me.rexsystems.rexChat.utils.MessageUtils;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Formats and sends chat lines on a small pool of RexChat worker threads
+ * instead of the thread that fired the chat event, so a chat flood piles up
+ * here rather than in the server's async chat executor.
+ *
+ * Each sender has their own lane and senders take turns (see
+ * {@link FairQueue}); players with rexchat.bypass are served first. When the
+ * queue is full, or a message waited longer than chat-queue.max-wait, the
+ * message is dropped and its sender told.
+ */
+public class ChatQueue {
+    private final RexChat plugin;
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private volatile FairQueue<UUID, Job> queue;
+    private volatile long maxWaitNanos;
+    private List<Thread> workers = List.of();
+
+    private record Job(Player sender, Runnable work, long queuedAt) {
+    }
+
+    public ChatQueue(RexChat plugin) {
+        this.plugin = plugin;
+        reload();
+    }
+
+    /**
+     * Read chat-queue settings and restart the workers. Messages already queued
+     * are still sent by the old workers. Called on enable and reload.
+     */
+    public synchronized void reload() {
+        stopWorkers();
+        FileConfiguration cfg = plugin.getConfigManager().getConfig();
+        if (!cfg.getBoolean("chat-queue.enabled", true))
+            return;
+
+        this.maxWaitNanos = (long) (Math.max(0, cfg.getDouble("chat-queue.max-wait", 5)) * 1_000_000_000L);
+        FairQueue.ShedPolicy policy = "drop-newest".equalsIgnoreCase(cfg.getString("chat-queue.shed-policy"))
+                ? FairQueue.ShedPolicy.DROP_NEWEST : FairQueue.ShedPolicy.DROP_OLDEST;
+        FairQueue<UUID, Job> created = new FairQueue<>(cfg.getInt("chat-queue.capacity", 500),
+                cfg.getInt("chat-queue.per-sender", 5), policy);
+
+        int count = Math.max(1, cfg.getInt("chat-queue.workers", 2));
+        List<Thread> started = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Thread worker = new Thread(() -> work(created), "RexChat Chat Worker #" + i);
+            worker.setDaemon(true);
+            worker.start();
+            started.add(worker);
+        }
+        this.workers = started;
+        this.queue = created;
+    }
+
+    /**
+     * Queue a chat line's formatting and delivery, or run it right away if the
+     * queue is disabled.
+     */
+    public void submit(Player sender, Runnable work) {
+        FairQueue<UUID, Job> current = queue;
+        if (current == null) {
+            work.run();
+            return;
+        }
+        Job job = new Job(sender, work, System.nanoTime());
+        Job dropped = current.offer(sender.getUniqueId(), job,
+                plugin.getPermissionCache().has(sender, "rexchat.bypass"));
+        if (dropped != null) {
+            shed.increment();
+            notifyDropped(dropped);
+        }
+    }
+
+    private void work(FairQueue<UUID, Job> source) {
+        while (true) {
+            FairQueue.Entry<UUID, Job> entry;
+            try {
+                entry = source.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (entry == null)
+                return;
+            Job job = entry.item();
+            try {
+                if (maxWaitNanos > 0 && System.nanoTime() - job.queuedAt() > maxWaitNanos) {
+                    expired.increment();
+                    notifyDropped(job);
+                } else {
+                    job.work().run();
+                    processed.increment();
+                }
+            } catch (Throwable t) {
+                // Scheduling for players fails once the plugin is disabled
+                if (plugin.isEnabled())
+                    plugin.getLogUtils().warning("Failed to send chat message of " + job.sender().getName()
+                            + ": " + t.getMessage());
+            } finally {
+                source.done(entry.key());
+            }
+        }
+    }
+
+    private void notifyDropped(Job job) {
+        FileConfiguration cfg = plugin.getConfigManager().getConfig();
+        String msg = cfg.getString("chat-queue.shed-message", "");
+        if (msg == null || msg.isEmpty() || !job.sender().isOnline())
+            return;
+        MessageUtils.sendCachedMessage(job.sender(), msg.replace("%rc_prefix%", cfg.getString("messages.prefix", "")));
+    }
+
+    private void stopWorkers() {
+        FairQueue<UUID, Job> current = queue;
+        this.queue = null;
+        if (current != null)
+            current.close();
+        workers = List.of();
+    }
+
+    /**
+     * Stop taking messages and drop what is still queued (counted as shed): the
+     * plugin is already disabled, so nothing can be scheduled for players any
+     * more. Gives the workers a moment to finish the message in hand. Called on
+     * disable.
+     */
+    public synchronized void close() {
+        List<Thread> running = workers;
+        FairQueue<UUID, Job> current = queue;
+        stopWorkers();
+        if (current != null)
+            shed.add(current.clear());
+        for (Thread worker : running) {
+            try {
+                worker.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return queue != null;
+    }
+
+    /**
+     * Messages waiting to be sent.
+     */
+    public int getDepth() {
+        FairQueue<UUID, Job> current = queue;
+        return current != null ? current.size() : 0;
+    }
+
+    public long getProcessedCount() {
+        return processed.sum();
+    }
+
+    /**
+     * Messages dropped because the queue or the sender's lane was full, or
+     * still queued on disable.
+     */
+    public long getShedCount() {
+        return shed.sum();
+    }
+
+    /**
+     * Messages dropped because they waited longer than max-wait.
+     */
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+}
@@ -0,0 +1,227 @@
+package me.rexsystems.rexChat.service;
+
+import me.rexsystems.rexChat.RexChat;
+import me.rexsystems.rexChat.utils.PapiUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves which chat-format.groups key applies to a player: their primary
+ * group (LuckPerms, then Vault, then the PlaceholderAPI expansions) matched
+ * against the configured groups, else the first group whose explicit
+ * permission they have.
+ *
+ * The permission plugins are looked up once on enable and reload and bound
+ * into {@link MethodHandle}s, so a lookup costs no reflection. Results are
+ * cached per player for permission-cache.ttl and dropped whenever the
+ * {@link PermissionCache} drops the player (LuckPerms recalculation, join,
+ * quit, world change, reload).
+ */
+public class GroupResolver {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    private final RexChat plugin;
+    private final Map<UUID, Entry> cache = new ConcurrentHashMap<>();
+    private volatile long ttlNanos;
+
+    // (Player)String, or null when the provider is not installed
+    private volatile MethodHandle luckPermsPrimary;
+    // (UUID)String via the user manager, for players the adapter does not know yet
+    private volatile MethodHandle luckPermsUserPrimary;
+    private volatile MethodHandle vaultPrimary;
+
+    private record Entry(String group, long resolvedAt) {
+    }
+
+    public GroupResolver(RexChat plugin) {
+        this.plugin = plugin;
+        plugin.getPermissionCache().addInvalidationListener(uuid -> {
+            if (uuid != null) {
+                cache.remove(uuid);
+            } else {
+                cache.clear();
+            }
+        });
+        reload();
+    }
+
+    /**
+     * Look up the permission plugins again and drop cached groups. Called on enable and reload.
+     */
+    public void reload() {
+        double seconds = plugin.getConfigManager().getConfig().getDouble("permission-cache.ttl", 5);
+        this.ttlNanos = (long) (Math.max(0, seconds) * 1_000_000_000L);
+        detectLuckPerms();
+        detectVault();
+        cache.clear();
+    }
+
+    private void detectLuckPerms() {
+        luckPermsPrimary = null;
+        luckPermsUserPrimary = null;
+        try {
+            Class<?> api = Class.forName("net.luckperms.api.LuckPerms");
+            Object luckPerms = Class.forName("net.luckperms.api.LuckPermsProvider").getMethod("get").invoke(null);
+
+            // Player adapter path avoids a missing user cache
+            Class<?> adapterClass = Class.forName("net.luckperms.api.platform.PlayerAdapter");
+            Class<?> metaClass = Class.forName("net.luckperms.api.cached.CachedMetaData");
+            Object adapter = api.getMethod("getPlayerAdapter", Class.class).invoke(luckPerms, Player.class);
+            MethodHandle getMeta = LOOKUP.unreflect(adapterClass.getMethod("getMetaData", Object.class))
+                    .bindTo(adapter);
+            MethodHandle getPrimary = LOOKUP.unreflect(metaClass.getMethod("getPrimaryGroup"));
+            luckPermsPrimary = MethodHandles.filterReturnValue(getMeta, getPrimary)
+                    .asType(MethodType.methodType(String.class, Player.class));
+
+            Class<?> userManagerClass = Class.forName("net.luckperms.api.model.user.UserManager");
+            Class<?> userClass = Class.forName("net.luckperms.api.model.user.User");
+            Object userManager = api.getMethod("getUserManager").invoke(luckPerms);
+            MethodHandle getUser = LOOKUP.unreflect(userManagerClass.getMethod("getUser", UUID.class))
+                    .bindTo(userManager);
+            // getUser returns null for unloaded users; guard before reading the group
+            MethodHandle userPrimary = MethodHandles.guardWithTest(
+                    LOOKUP.findStatic(java.util.Objects.class, "nonNull",
+                            MethodType.methodType(boolean.class, Object.class)).asType(
+                            MethodType.methodType(boolean.class, userClass)),
+                    LOOKUP.unreflect(userClass.getMethod("getPrimaryGroup")),
+                    MethodHandles.dropArguments(MethodHandles.constant(String.class, null), 0, userClass));
+            luckPermsUserPrimary = MethodHandles.filterReturnValue(getUser, userPrimary)
+                    .asType(MethodType.methodType(String.class, UUID.class));
+            plugin.getLogUtils().debug("Group lookup: using LuckPerms");
+        } catch (Throwable ignored) {
+            // LuckPerms not installed
+        }
+    }
+
+    private void detectVault() {
+        vaultPrimary = null;
+        try {
+            Class<?> permClass = Class.forName("net.milkbowl.vault.permission.Permission");
+            org.bukkit.plugin.RegisteredServiceProvider<?> registration = Bukkit.getServicesManager()
+                    .getRegistration(permClass);
+            if (registration == null)
+                return;
+            Object provider = registration.getProvider();
+            MethodHandle handle;
+            try {
+                handle = LOOKUP.unreflect(permClass.getMethod("getPrimaryGroup", Player.class)).bindTo(provider);
+            } catch (NoSuchMethodException e) {
+                // Older Vault: (String world, String player)
+                MethodHandle byName = LOOKUP.unreflect(permClass.getMethod("getPrimaryGroup", String.class,
+                        String.class)).bindTo(provider);
+                MethodHandle worldName = MethodHandles.filterReturnValue(
+                        LOOKUP.findVirtual(Player.class, "getWorld", MethodType.methodType(org.bukkit.World.class)),
+                        LOOKUP.findVirtual(org.bukkit.World.class, "getName", MethodType.methodType(String.class)));
+                MethodHandle playerName = LOOKUP.findVirtual(Player.class, "getName",
+                        MethodType.methodType(String.class));
+                handle = MethodHandles.permuteArguments(
+                        MethodHandles.filterArguments(byName, 0, worldName, playerName),
+                        MethodType.methodType(String.class, Player.class), 0, 0);
+            }
+            vaultPrimary = handle.asType(MethodType.methodType(String.class, Player.class));
+            plugin.getLogUtils().debug("Group lookup: using Vault");
+        } catch (Throwable ignored) {
+            // Vault not installed
+        }
+    }
+
+    /**
+     * The chat-format.groups key for the player, or null for the default format.
+     */
+    public String resolve(Player player) {
+        if (ttlNanos <= 0)
+            return compute(player);
+        long now = System.nanoTime();
+        Entry entry = cache.get(player.getUniqueId());
+        if (entry == null || now - entry.resolvedAt() > ttlNanos) {
+            entry = new Entry(compute(player), now);
+            cache.put(player.getUniqueId(), entry);
+        }
+        return entry.group();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private String compute(Player sender) {
+        String primary = primaryGroup(sender);
+        FileConfiguration cfg = plugin.getConfigManager().getConfig();
+        ConfigurationSection groupsSection = cfg.getConfigurationSection("chat-format.groups");
+        if (groupsSection == null)
+            return null;
+
+        // If primary group is present and matches a key (case-insensitive), use it
+        if (primary != null) {
+            for (String key : groupsSection.getKeys(false)) {
+                if (key.equalsIgnoreCase(primary)) {
+                    plugin.getLogUtils().debug("Matched group '" + key + "' for player " + sender.getName());
+                    return key;
+                }
+            }
+            plugin.getLogUtils().debug("Primary group '" + primary + "' not found in config groups. Available: "
+                    + String.join(", ", groupsSection.getKeys(false)));
+        } else {
+            plugin.getLogUtils().debug("Could not resolve primary group for player " + sender.getName());
+        }
+
+        // Otherwise, only match via explicit permission from config
+        for (String key : groupsSection.getKeys(false)) {
+            String explicitPerm = groupsSection.getString(key + ".permission", null);
+            if (explicitPerm != null && !explicitPerm.isEmpty()
+                    && plugin.getPermissionCache().has(sender, explicitPerm)) {
+                plugin.getLogUtils().debug("Matched group '" + key + "' for player " + sender.getName()
+                        + " via permission: " + explicitPerm);
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private String primaryGroup(Player sender) {
+        String primary = null;
+        MethodHandle lp = luckPermsPrimary;
+        if (lp != null) {
+            try {
+                primary = (String) lp.invokeExact(sender);
+            } catch (Throwable ignored) {
+            }
+            if (primary == null) {
+                try {
+                    primary = (String) luckPermsUserPrimary.invokeExact(sender.getUniqueId());
+                } catch (Throwable ignored) {
+                }
+            }
+        }
+
+        MethodHandle vault = vaultPrimary;
+        if (primary == null && vault != null) {
+            try {
+                primary = (String) vault.invokeExact(sender);
+            } catch (Throwable ignored) {
+            }
+        }
+
+        // PAPI fallback if available
+        if (primary == null) {
+            String lpPapi = PapiUtils.apply(sender, "%luckperms_primary_group%");
+            if (lpPapi != null && !"%luckperms_primary_group%".equals(lpPapi))
+                primary = lpPapi;
+        }
+        if (primary == null) {
+            String vaultPapi = PapiUtils.apply(sender, "%vault_primary_group%");
+            if (vaultPapi != null && !"%vault_primary_group%".equals(vaultPapi))
+                primary = vaultPapi;
+        }
+        return primary;
+    }
+}
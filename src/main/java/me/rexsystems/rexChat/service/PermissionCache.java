@@ -0,0 +1,166 @@
+package me.rexsystems.rexChat.service;
+
+import me.rexsystems.rexChat.RexChat;
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Per-player snapshot of the permission nodes checked while chatting (bypass,
+ * placeholders, MiniMessage, color presets, format groups, channels, ranges).
+ * Each node is resolved with hasPermission at most once per snapshot.
+ *
+ * A snapshot is dropped when its TTL runs out, on join/quit/world change, on
+ * reload, and right away when LuckPerms recalculates the player's (or any
+ * group's) data. Bukkit has no event for other permission changes, so those
+ * are picked up by the TTL.
+ */
+public class PermissionCache {
+    private final RexChat plugin;
+    private final Map<UUID, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private volatile long ttlNanos;
+    private final java.util.List<Consumer<UUID>> invalidationListeners = new java.util.concurrent.CopyOnWriteArrayList<>();
+    // LuckPerms event subscriptions, closed on disable
+    private final java.util.List<AutoCloseable> subscriptions = new java.util.ArrayList<>();
+
+    private static final class Snapshot {
+        final long createdAt;
+        final Map<String, Boolean> nodes = new ConcurrentHashMap<>();
+
+        Snapshot(long createdAt) {
+            this.createdAt = createdAt;
+        }
+    }
+
+    public PermissionCache(RexChat plugin) {
+        this.plugin = plugin;
+        loadSettings();
+    }
+
+    /**
+     * Read permission-cache.ttl from config and drop all snapshots. Called on enable and reload.
+     */
+    public void loadSettings() {
+        double seconds = plugin.getConfigManager().getConfig().getDouble("permission-cache.ttl", 5);
+        this.ttlNanos = (long) (Math.max(0, seconds) * 1_000_000_000L);
+        invalidateAll();
+    }
+
+    /**
+     * Cached {@link Player#hasPermission(String)}.
+     */
+    public boolean has(Player player, String node) {
+        if (ttlNanos <= 0)
+            return player.hasPermission(node);
+        UUID uuid = player.getUniqueId();
+        long now = System.nanoTime();
+        Snapshot snapshot = snapshots.get(uuid);
+        if (snapshot == null || now - snapshot.createdAt > ttlNanos) {
+            snapshot = new Snapshot(now);
+            snapshots.put(uuid, snapshot);
+        }
+        Boolean value = snapshot.nodes.get(node);
+        if (value == null) {
+            value = player.hasPermission(node);
+            snapshot.nodes.put(node, value);
+        }
+        return value;
+    }
+
+    public void invalidate(UUID uuid) {
+        snapshots.remove(uuid);
+        for (Consumer<UUID> listener : invalidationListeners) {
+            listener.accept(uuid);
+        }
+    }
+
+    public void invalidateAll() {
+        snapshots.clear();
+        for (Consumer<UUID> listener : invalidationListeners) {
+            listener.accept(null);
+        }
+    }
+
+    /**
+     * Called whenever a player's snapshot is dropped, with their UUID, or with
+     * null when all snapshots are dropped. Lets other per-player caches that
+     * depend on permissions or groups follow the same invalidation.
+     */
+    public void addInvalidationListener(Consumer<UUID> listener) {
+        invalidationListeners.add(listener);
+    }
+
+    public int size() {
+        return snapshots.size();
+    }
+
+    /**
+     * Drop snapshots when LuckPerms recalculates user or group data. Uses
+     * reflection so LuckPerms stays optional.
+     *
+     * @return true if LuckPerms is present and the listeners were registered
+     */
+    public boolean hookLuckPerms() {
+        if (plugin.getServer().getPluginManager().getPlugin("LuckPerms") == null)
+            return false;
+        try {
+            // Methods are looked up once on the public API interfaces: the objects
+            // LuckPerms hands out are of its own (not accessible) implementation classes
+            Class<?> providerClass = Class.forName("net.luckperms.api.LuckPermsProvider");
+            Object luckPerms = providerClass.getMethod("get").invoke(null);
+            Object eventBus = Class.forName("net.luckperms.api.LuckPerms").getMethod("getEventBus").invoke(luckPerms);
+            Method subscribe = Class.forName("net.luckperms.api.event.EventBus")
+                    .getMethod("subscribe", Object.class, Class.class, Consumer.class);
+
+            Class<?> userEvent = Class.forName("net.luckperms.api.event.user.UserDataRecalculateEvent");
+            Method getUser = userEvent.getMethod("getUser");
+            Method getUniqueId = Class.forName("net.luckperms.api.model.user.User").getMethod("getUniqueId");
+            subscribe(eventBus, subscribe, userEvent, event -> {
+                try {
+                    Object uuid = getUniqueId.invoke(getUser.invoke(event));
+                    if (uuid instanceof UUID id)
+                        invalidate(id);
+                } catch (ReflectiveOperationException e) {
+                    invalidateAll();
+                }
+            });
+            // Group changes can affect any number of players
+            subscribe(eventBus, subscribe, Class.forName("net.luckperms.api.event.group.GroupDataRecalculateEvent"),
+                    event -> invalidateAll());
+            return true;
+        } catch (Throwable t) {
+            plugin.getLogUtils().debug("LuckPerms permission hook unavailable: " + t.getMessage());
+            return false;
+        }
+    }
+
+    private void subscribe(Object eventBus, Method subscribe, Class<?> eventClass, Consumer<Object> handler)
+            throws ReflectiveOperationException {
+        Object subscription = subscribe.invoke(eventBus, plugin, eventClass, handler);
+        if (subscription instanceof AutoCloseable closeable) {
+            synchronized (subscriptions) {
+                subscriptions.add(closeable);
+            }
+        }
+    }
+
+    /**
+     * Unsubscribe from LuckPerms. Called on disable.
+     */
+    public void close() {
+        synchronized (subscriptions) {
+            for (AutoCloseable subscription : subscriptions) {
+                try {
+                    subscription.close();
+                } catch (Exception ignored) {
+                }
+            }
+            subscriptions.clear();
+        }
+        snapshots.clear();
+    }
+}
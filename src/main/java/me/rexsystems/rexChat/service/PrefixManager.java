@@ -0,0 +1,254 @@
+package me.rexsystems.rexChat.service;
+
+import me.rexsystems.rexChat.RexChat;
+import me.rexsystems.rexChat.api.PrefixProvider;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves chat prefixes and suffixes through one {@link PrefixProvider},
+ * chosen on enable and reload: a provider set through the API, else
+ * LuckPerms, else Vault chat, else the static prefix/suffix keys in
+ * chat-format.groups.
+ *
+ * Prefix and suffix are cached together per player for permission-cache.ttl
+ * and dropped with the player's permission snapshot, so LuckPerms meta
+ * changes show up right away.
+ */
+public class PrefixManager {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    private final RexChat plugin;
+    private final Map<UUID, Meta> cache = new ConcurrentHashMap<>();
+    private volatile long ttlNanos;
+    private volatile PrefixProvider provider;
+    // Set through the API; survives reloads
+    private volatile PrefixProvider customProvider;
+
+    private record Meta(String prefix, String suffix, long resolvedAt) {
+    }
+
+    public PrefixManager(RexChat plugin) {
+        this.plugin = plugin;
+        plugin.getPermissionCache().addInvalidationListener(uuid -> {
+            if (uuid != null) {
+                cache.remove(uuid);
+            } else {
+                cache.clear();
+            }
+        });
+        reload();
+    }
+
+    /**
+     * Pick the provider again and drop cached prefixes. Called on enable and reload.
+     */
+    public void reload() {
+        double seconds = plugin.getConfigManager().getConfig().getDouble("permission-cache.ttl", 5);
+        this.ttlNanos = (long) (Math.max(0, seconds) * 1_000_000_000L);
+        PrefixProvider chosen = customProvider;
+        if (chosen == null)
+            chosen = LuckPermsPrefixProvider.create();
+        if (chosen == null)
+            chosen = VaultPrefixProvider.create();
+        if (chosen == null)
+            chosen = new ConfigPrefixProvider(plugin);
+        this.provider = chosen;
+        cache.clear();
+        plugin.getLogUtils().debug("Prefix provider: " + chosen.getName());
+    }
+
+    /**
+     * Use a custom provider, or null to go back to the detected one.
+     */
+    public void setCustomProvider(PrefixProvider provider) {
+        this.customProvider = provider;
+        reload();
+    }
+
+    public PrefixProvider getProvider() {
+        return provider;
+    }
+
+    public String getPrefix(Player player) {
+        return meta(player).prefix();
+    }
+
+    public String getSuffix(Player player) {
+        return meta(player).suffix();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private Meta meta(Player player) {
+        long now = System.nanoTime();
+        Meta meta = cache.get(player.getUniqueId());
+        if (meta == null || ttlNanos <= 0 || now - meta.resolvedAt() > ttlNanos) {
+            meta = new Meta(lookup(player, true), lookup(player, false), now);
+            if (ttlNanos > 0)
+                cache.put(player.getUniqueId(), meta);
+        }
+        return meta;
+    }
+
+    private String lookup(Player player, boolean prefix) {
+        try {
+            String value = prefix ? provider.getPrefix(player) : provider.getSuffix(player);
+            return value != null ? value : "";
+        } catch (Throwable t) {
+            return "";
+        }
+    }
+
+    /**
+     * LuckPerms cached meta data, through the player adapter.
+     */
+    private static final class LuckPermsPrefixProvider implements PrefixProvider {
+        private final MethodHandle prefix;
+        private final MethodHandle suffix;
+
+        private LuckPermsPrefixProvider(MethodHandle prefix, MethodHandle suffix) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        static PrefixProvider create() {
+            try {
+                Class<?> api = Class.forName("net.luckperms.api.LuckPerms");
+                Object luckPerms = Class.forName("net.luckperms.api.LuckPermsProvider").getMethod("get").invoke(null);
+                Class<?> adapterClass = Class.forName("net.luckperms.api.platform.PlayerAdapter");
+                Class<?> metaClass = Class.forName("net.luckperms.api.cached.CachedMetaData");
+                Object adapter = api.getMethod("getPlayerAdapter", Class.class).invoke(luckPerms, Player.class);
+                MethodHandle getMeta = LOOKUP.unreflect(adapterClass.getMethod("getMetaData", Object.class))
+                        .bindTo(adapter);
+                MethodType type = MethodType.methodType(String.class, Player.class);
+                return new LuckPermsPrefixProvider(
+                        MethodHandles.filterReturnValue(getMeta, LOOKUP.unreflect(metaClass.getMethod("getPrefix")))
+                                .asType(type),
+                        MethodHandles.filterReturnValue(getMeta, LOOKUP.unreflect(metaClass.getMethod("getSuffix")))
+                                .asType(type));
+            } catch (Throwable t) {
+                return null;
+            }
+        }
+
+        @Override
+        public String getName() {
+            return "LuckPerms";
+        }
+
+        @Override
+        public String getPrefix(Player player) {
+            try {
+                return (String) prefix.invokeExact(player);
+            } catch (Throwable t) {
+                return null;
+            }
+        }
+
+        @Override
+        public String getSuffix(Player player) {
+            try {
+                return (String) suffix.invokeExact(player);
+            } catch (Throwable t) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Vault chat provider (registered by the permission plugin).
+     */
+    private static final class VaultPrefixProvider implements PrefixProvider {
+        private final MethodHandle prefix;
+        private final MethodHandle suffix;
+
+        private VaultPrefixProvider(MethodHandle prefix, MethodHandle suffix) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        static PrefixProvider create() {
+            try {
+                Class<?> chatClass = Class.forName("net.milkbowl.vault.chat.Chat");
+                org.bukkit.plugin.RegisteredServiceProvider<?> registration = Bukkit.getServicesManager()
+                        .getRegistration(chatClass);
+                if (registration == null)
+                    return null;
+                Object chat = registration.getProvider();
+                return new VaultPrefixProvider(
+                        LOOKUP.unreflect(chatClass.getMethod("getPlayerPrefix", Player.class)).bindTo(chat),
+                        LOOKUP.unreflect(chatClass.getMethod("getPlayerSuffix", Player.class)).bindTo(chat));
+            } catch (Throwable t) {
+                return null;
+            }
+        }
+
+        @Override
+        public String getName() {
+            return "Vault";
+        }
+
+        @Override
+        public String getPrefix(Player player) {
+            try {
+                return (String) prefix.invokeExact(player);
+            } catch (Throwable t) {
+                return null;
+            }
+        }
+
+        @Override
+        public String getSuffix(Player player) {
+            try {
+                return (String) suffix.invokeExact(player);
+            } catch (Throwable t) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Fallback without a permission plugin: chat-format.groups.&lt;group&gt;.prefix/suffix.
+     */
+    private static final class ConfigPrefixProvider implements PrefixProvider {
+        private final RexChat plugin;
+
+        ConfigPrefixProvider(RexChat plugin) {
+            this.plugin = plugin;
+        }
+
+        @Override
+        public String getName() {
+            return "config";
+        }
+
+        @Override
+        public String getPrefix(Player player) {
+            return groupValue(player, "prefix");
+        }
+
+        @Override
+        public String getSuffix(Player player) {
+            return groupValue(player, "suffix");
+        }
+
+        private String groupValue(Player player, String key) {
+            String group = plugin.getGroupResolver().resolve(player);
+            if (group == null)
+                return null;
+            FileConfiguration cfg = plugin.getConfigManager().getConfig();
+            return cfg.getString("chat-format.groups." + group + "." + key, null);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package me.rexsystems.rexChat.service;
+
+import me.rexsystems.rexChat.RexChat;
+import me.rexsystems.rexChat.utils.ChatFormatTemplate;
+import me.rexsystems.rexChat.utils.ProximityGrid;
+import me.rexsystems.rexChat.utils.SlotRegistry;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds proximity chat recipients without scanning every online player.
+ * Positions are kept in a {@link ProximityGrid} updated from movement events;
+ * players with the bypass permission (who hear every message) are kept in a
+ * separate slot bit set that is refreshed periodically and on join/reload.
+ * Recipients are returned as a bit set over the player slots.
+ *
+ * Also holds the chat ranges: the default "talk" radius plus extra ranges
+ * (e.g. shout, whisper) picked by a message prefix. Every range is answered by
+ * the same grid query, just with its own radius.
+ */
+public class ProximityManager {
+    private final RexChat plugin;
+    private final SlotRegistry<Player> slots;
+    private final ProximityGrid<Player> grid = new ProximityGrid<>();
+    private final Object bypassLock = new Object();
+    // Slots of players with the bypass permission; copy-on-write
+    private volatile BitSet bypassViewers = new BitSet();
+    // Last use per player and range name, for range cooldowns
+    private final Map<UUID, Map<String, Long>> lastRangeUse = new ConcurrentHashMap<>();
+    private volatile ChatRange defaultRange;
+    // Longest prefix first, so "!!" wins over "!"
+    private volatile List<ChatRange> ranges = List.of();
+
+    public ProximityManager(RexChat plugin) {
+        this.plugin = plugin;
+        this.slots = plugin.getPlayerSlots();
+        slots.addReleaseListener(slot -> setBypass(slot, false));
+        loadRanges();
+    }
+
+    /**
+     * A proximity chat range.
+     *
+     * @param prefix         message prefix that selects this range; empty for the default range
+     * @param permission     required to use the range, or empty
+     * @param format         chat format used instead of the player's format, or null
+     * @param indicator      shown before the line when show-range-indicator is on
+     * @param cooldownMillis minimum time between two messages in this range
+     */
+    public record ChatRange(String name, String prefix, double radius, String permission, ChatFormatTemplate format,
+                            String indicator, long cooldownMillis) {
+    }
+
+    /**
+     * Read chat-management.proximity.radius and .ranges from config. Called on enable and reload.
+     */
+    public void loadRanges() {
+        FileConfiguration cfg = plugin.getConfigManager().getConfig();
+        String prefix = cfg.getString("messages.prefix", "");
+        this.defaultRange = new ChatRange("talk", "", cfg.getDouble("chat-management.proximity.radius", 100.0), "",
+                null, cfg.getString("chat-management.proximity.range-indicator", "&7[Local] "), 0L);
+
+        List<ChatRange> loaded = new ArrayList<>();
+        ConfigurationSection section = cfg.getConfigurationSection("chat-management.proximity.ranges");
+        if (section != null) {
+            for (String name : section.getKeys(false)) {
+                ConfigurationSection r = section.getConfigurationSection(name);
+                if (r == null)
+                    continue;
+                String rangePrefix = r.getString("prefix", "");
+                if (rangePrefix.isEmpty()) {
+                    plugin.getLogUtils().warning("Chat range '" + name + "' has no prefix and was skipped");
+                    continue;
+                }
+                String format = r.getString("format", null);
+                loaded.add(new ChatRange(name, rangePrefix, r.getDouble("radius", defaultRange.radius()),
+                        r.getString("permission", ""),
+                        format != null && !format.isEmpty()
+                                ? ChatFormatManager.compile(format.replace("%rc_prefix%", prefix)) : null,
+                        r.getString("range-indicator", defaultRange.indicator()),
+                        (long) (r.getDouble("cooldown", 0) * 1000)));
+            }
+        }
+        loaded.sort(Comparator.comparingInt((ChatRange r) -> r.prefix().length()).reversed());
+        this.ranges = List.copyOf(loaded);
+    }
+
+    public ChatRange getDefaultRange() {
+        return defaultRange;
+    }
+
+    public List<ChatRange> getRanges() {
+        return ranges;
+    }
+
+    /**
+     * True if the sender's messages only reach nearby players: proximity chat is on and
+     * they neither toggled global chat nor have the bypass permission. Ranges only
+     * apply to these players; everyone else chats globally.
+     */
+    public boolean isLimited(Player sender) {
+        FileConfiguration cfg = plugin.getConfigManager().getConfig();
+        if (!cfg.getBoolean("chat-management.proximity.enabled", false))
+            return false;
+        if (cfg.getDouble("chat-management.proximity.radius", 100.0) <= 0)
+            return false;
+        String bypassPerm = cfg.getString("chat-management.proximity.bypass-permission", "rexchat.proximity.bypass");
+        // Global chat toggle is held in memory while online
+        return !plugin.getPlayerDataManager().isGlobalChat(sender) && !plugin.getPermissionCache().has(sender, bypassPerm);
+    }
+
+    /**
+     * The range selected by the message prefix, or null if the message has none
+     * (or the player may not use it). A bare prefix with no text selects nothing.
+     */
+    public ChatRange matchRange(Player sender, String message) {
+        for (ChatRange range : ranges) {
+            if (message.length() > range.prefix().length() && message.startsWith(range.prefix())
+                    && (range.permission().isEmpty() || plugin.getPermissionCache().has(sender, range.permission())))
+                return range;
+        }
+        return null;
+    }
+
+    /**
+     * Record a message in the given range if its cooldown has passed.
+     *
+     * @return 0 if allowed, otherwise the milliseconds left
+     */
+    public long tryUseRange(Player sender, ChatRange range) {
+        if (range.cooldownMillis() <= 0)
+            return 0L;
+        long now = System.currentTimeMillis();
+        long[] wait = new long[1];
+        lastRangeUse.computeIfAbsent(sender.getUniqueId(), k -> new ConcurrentHashMap<>())
+                .compute(range.name(), (k, last) -> {
+                    if (last != null && now - last < range.cooldownMillis()) {
+                        wait[0] = range.cooldownMillis() - (now - last);
+                        return last;
+                    }
+                    return now;
+                });
+        return wait[0];
+    }
+
+    /**
+     * Index the players already online (used on enable).
+     */
+    public void reset() {
+        grid.clear();
+        synchronized (bypassLock) {
+            bypassViewers = new BitSet();
+        }
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            track(p, p.getLocation());
+        }
+    }
+
+    public void track(Player player, Location location) {
+        World world = location.getWorld();
+        if (world == null)
+            return;
+        grid.update(player.getUniqueId(), player, world.getUID(), location.getX(), location.getZ());
+        refreshBypass(player);
+    }
+
+    public void moved(Player player, Location to) {
+        World world = to.getWorld();
+        if (world != null)
+            grid.update(player.getUniqueId(), player, world.getUID(), to.getX(), to.getZ());
+    }
+
+    public void untrack(UUID uuid) {
+        grid.remove(uuid);
+        lastRangeUse.remove(uuid);
+    }
+
+    /**
+     * Re-check the bypass permission of every online player.
+     */
+    public void refreshBypass() {
+        slots.forEach(slots.occupied(), this::refreshBypass);
+    }
+
+    private void refreshBypass(Player player) {
+        String perm = plugin.getConfigManager().getConfig()
+                .getString("chat-management.proximity.bypass-permission", "rexchat.proximity.bypass");
+        boolean bypass = player.isOnline() && plugin.getPermissionCache().has(player, perm);
+        // The player may quit meanwhile (this runs async); never set the bit on a reused slot
+        slots.withSlot(player.getUniqueId(), slot -> setBypass(slot, bypass));
+    }
+
+    private void setBypass(int slot, boolean bypass) {
+        synchronized (bypassLock) {
+            if (bypassViewers.get(slot) == bypass)
+                return;
+            BitSet copy = (BitSet) bypassViewers.clone();
+            copy.set(slot, bypass);
+            bypassViewers = copy;
+        }
+    }
+
+    /**
+     * Players who hear a message sent by sender within radius: the sender, everyone
+     * in the same world within the radius, and everyone with the bypass permission.
+     */
+    public BitSet recipients(Player sender, double radius) {
+        BitSet recipients = new BitSet();
+
+        Location origin = sender.getLocation();
+        World world = origin.getWorld();
+        double radiusSquared = radius * radius;
+        if (world != null) {
+            grid.forEachNear(world.getUID(), origin.getX(), origin.getZ(), radius, p -> {
+                if (!p.isOnline())
+                    return;
+                Location loc = p.getLocation();
+                if (world.equals(loc.getWorld()) && loc.distanceSquared(origin) <= radiusSquared)
+                    slots.mark(recipients, p.getUniqueId());
+            });
+        }
+        recipients.or(bypassViewers);
+        slots.mark(recipients, sender.getUniqueId());
+        return recipients;
+    }
+
+    public int getTrackedCount() {
+        return grid.size();
+    }
+}
@@ -0,0 +1,192 @@
+package me.rexsystems.rexChat.service;
+
+import me.rexsystems.rexChat.RexChat;
+import me.rexsystems.rexChat.utils.MessageUtils;
+import me.rexsystems.rexChat.utils.TokenBucket;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-player chat rate limit, checked before any formatting work.
+ *
+ * Each player has a token bucket (chat-management.rate-limit): a message
+ * takes a token, tokens come back at per-second. The limit of the player's
+ * channel or proximity range applies if it sets rate-limit, else the one of
+ * their chat-format group, else the default. The same message sent again
+ * within duplicate-window is dropped silently.
+ *
+ * Both checks live in two packed longs per player and are updated with
+ * compare-and-set, so dropping spam allocates nothing.
+ */
+public class RateLimiter {
+    private final RexChat plugin;
+    private final Map<UUID, State> states = new ConcurrentHashMap<>();
+    // Bucket times are relative to this, see TokenBucket
+    private final long base = System.currentTimeMillis();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private volatile Settings settings;
+
+    private record Rule(int burst, double perSecond) {
+    }
+
+    private record Settings(boolean enabled, Rule defaultRule, Map<String, Rule> groups, Map<String, Rule> channels,
+                            Map<String, Rule> ranges, long duplicateWindow, String message) {
+    }
+
+    private static final class State {
+        final AtomicLong bucket = new AtomicLong(TokenBucket.FULL);
+        // Message hash in the high half, send time (ms, wrapping) in the low half
+        final AtomicLong lastMessage = new AtomicLong();
+    }
+
+    public RateLimiter(RexChat plugin) {
+        this.plugin = plugin;
+        reload();
+    }
+
+    /**
+     * Read chat-management.rate-limit and the per-channel and per-range limits.
+     * Called on enable and reload.
+     */
+    public void reload() {
+        FileConfiguration cfg = plugin.getConfigManager().getConfig();
+        Rule defaultRule = new Rule(cfg.getInt("chat-management.rate-limit.burst", 5),
+                cfg.getDouble("chat-management.rate-limit.per-second", 1.0));
+
+        Map<String, Rule> groups = new HashMap<>();
+        ConfigurationSection groupSection = cfg.getConfigurationSection("chat-management.rate-limit.groups");
+        if (groupSection != null) {
+            for (String group : groupSection.getKeys(false)) {
+                groups.put(group, readRule(groupSection.getConfigurationSection(group), defaultRule));
+            }
+        }
+
+        // Range limits only matter while proximity chat is on
+        Map<String, Rule> ranges = cfg.getBoolean("chat-management.proximity.enabled", false)
+                ? readScoped(cfg.getConfigurationSection("chat-management.proximity.ranges"), defaultRule) : Map.of();
+        this.settings = new Settings(cfg.getBoolean("chat-management.rate-limit.enabled", true), defaultRule,
+                groups, readScoped(cfg.getConfigurationSection("channels.list"), defaultRule), ranges,
+                (long) (Math.max(0, cfg.getDouble("chat-management.rate-limit.duplicate-window", 0.8)) * 1000),
+                cfg.getString("chat-management.rate-limit.message", ""));
+    }
+
+    // <name>.rate-limit of every entry in a channel or range list
+    private static Map<String, Rule> readScoped(ConfigurationSection section, Rule fallback) {
+        Map<String, Rule> rules = new HashMap<>();
+        if (section != null) {
+            for (String name : section.getKeys(false)) {
+                ConfigurationSection limit = section.getConfigurationSection(name + ".rate-limit");
+                if (limit != null)
+                    rules.put(name.toLowerCase(), readRule(limit, fallback));
+            }
+        }
+        return rules;
+    }
+
+    private static Rule readRule(ConfigurationSection section, Rule fallback) {
+        if (section == null)
+            return fallback;
+        return new Rule(section.getInt("burst", fallback.burst()), section.getDouble("per-second", fallback.perSecond()));
+    }
+
+    /**
+     * Check whether a chat message may be sent, and tell the player if it is
+     * rate limited.
+     *
+     * @return true if the message may go through
+     */
+    public boolean tryAcquire(Player player, String message) {
+        Settings current = settings;
+        State state = states.computeIfAbsent(player.getUniqueId(), k -> new State());
+        long now = System.currentTimeMillis() - base;
+
+        if (current.duplicateWindow() > 0) {
+            long stamp = ((long) message.hashCode() << 32) | (now & 0xFFFFFFFFL);
+            long previous = state.lastMessage.getAndSet(stamp);
+            if (previous != 0 && (int) (previous >>> 32) == message.hashCode()
+                    && (int) (now - previous) >= 0 && (int) (now - previous) < current.duplicateWindow()) {
+                duplicates.increment();
+                return false;
+            }
+        }
+
+        if (!current.enabled() || plugin.getPermissionCache().has(player, "rexchat.bypass"))
+            return true;
+
+        Rule rule = ruleFor(player, message, current);
+        while (true) {
+            long before = state.bucket.get();
+            long after = TokenBucket.take(before, now, rule.burst(), rule.perSecond());
+            if (after == TokenBucket.REJECTED) {
+                rejected.increment();
+                String msg = current.message();
+                if (msg != null && !msg.isEmpty()) {
+                    String prefix = plugin.getConfigManager().getConfig().getString("messages.prefix", "");
+                    MessageUtils.sendCachedMessage(player, msg.replace("%rc_prefix%", prefix));
+                }
+                return false;
+            }
+            if (state.bucket.compareAndSet(before, after))
+                return true;
+        }
+    }
+
+    private Rule ruleFor(Player player, String message, Settings current) {
+        ChannelManager channels = plugin.getChannelManager();
+        if (!current.channels().isEmpty() && channels != null && channels.isEnabled()) {
+            ChannelManager.Channel channel = channels.getFocusedChannel(player);
+            if (channel != null) {
+                Rule rule = current.channels().get(channel.id());
+                if (rule != null)
+                    return rule;
+            }
+        }
+        ProximityManager proximity = plugin.getProximityManager();
+        // Same check as the formatter: range prefixes mean nothing in global chat
+        if (!current.ranges().isEmpty() && proximity != null && proximity.isLimited(player)) {
+            ProximityManager.ChatRange range = proximity.matchRange(player, message);
+            if (range != null) {
+                Rule rule = current.ranges().get(range.name().toLowerCase());
+                if (rule != null)
+                    return rule;
+            }
+        }
+        if (!current.groups().isEmpty()) {
+            String group = plugin.getGroupResolver().resolve(player);
+            Rule rule = group != null ? current.groups().get(group) : null;
+            if (rule != null)
+                return rule;
+        }
+        return current.defaultRule();
+    }
+
+    /**
+     * Forget a player's bucket (on quit).
+     */
+    public void remove(UUID uuid) {
+        states.remove(uuid);
+    }
+
+    /**
+     * Messages dropped by the rate limit.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Repeated messages dropped within the duplicate window.
+     */
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+}
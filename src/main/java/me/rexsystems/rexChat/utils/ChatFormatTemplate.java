@@ -0,0 +1,228 @@
+package me.rexsystems.rexChat.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A chat format compiled into literal and placeholder segments.
+ * Formats are compiled once per reload and filled in a single pass per message,
+ * so only the placeholders that actually appear in the format are evaluated.
+ *
+ * Literal text containing PlaceholderAPI %placeholders% is kept as its own
+ * segment and handed to {@link Resolver#resolveExternal(String)}; placeholders
+ * whose value never changes can be filled in once with {@link #expand}.
+ */
+public final class ChatFormatTemplate {
+
+    /**
+     * Built-in placeholders understood by chat formats.
+     */
+    public enum Placeholder {
+        PLAYER("{player}"),
+        NAME("{name}"),
+        DISPLAY_NAME("{display_name}"),
+        MESSAGE("{message}"),
+        WORLD("{world}"),
+        HEALTH("{health}"),
+        MAX_HEALTH("{max_health}"),
+        X("{x}"),
+        Y("{y}"),
+        Z("{z}"),
+        PING("{ping}"),
+        PREFIX("{prefix}"),
+        SUFFIX("{suffix}"),
+        LUCKPERMS_PREFIX("%luckperms_prefix%"),
+        LUCKPERMS_SUFFIX("%luckperms_suffix%");
+
+        private final String token;
+
+        Placeholder(String token) {
+            this.token = token;
+        }
+
+        public String token() {
+            return token;
+        }
+    }
+
+    /**
+     * Supplies the value for a placeholder while a template is being rendered.
+     */
+    @FunctionalInterface
+    public interface Resolver {
+        String resolve(Placeholder placeholder);
+
+        /**
+         * Resolve the %placeholders% in a piece of the format's own text. Not called
+         * for built-in placeholder values such as the message.
+         */
+        default String resolveExternal(String text) {
+            return text;
+        }
+    }
+
+    // Format text containing %placeholders%
+    private record External(String text) {
+    }
+
+    private static final Placeholder[] PLACEHOLDERS = Placeholder.values();
+    private static final Pattern EXTERNAL = Pattern.compile("%([^%\\s]+)%");
+
+    private final String source;
+    // Each entry is a literal String, a Placeholder or an External
+    private final Object[] segments;
+    private final Set<Placeholder> used;
+    private final int literalLength;
+    // The whole output when nothing needs resolving, else null
+    private final String constant;
+
+    private ChatFormatTemplate(String source, Object[] segments, Set<Placeholder> used, int literalLength) {
+        this.source = source;
+        this.segments = segments;
+        this.used = used;
+        this.literalLength = literalLength;
+        StringBuilder text = new StringBuilder(literalLength);
+        for (Object segment : segments) {
+            if (!(segment instanceof String literal)) {
+                text = null;
+                break;
+            }
+            text.append(literal);
+        }
+        this.constant = text != null ? text.toString() : null;
+    }
+
+    /**
+     * Compile a format string into segments. Unknown {tokens} are kept as literal text.
+     */
+    public static ChatFormatTemplate compile(String format) {
+        if (format == null)
+            format = "";
+
+        List<Object> segments = new ArrayList<>();
+        EnumSet<Placeholder> used = EnumSet.noneOf(Placeholder.class);
+        StringBuilder literal = new StringBuilder();
+        int literalLength = 0;
+
+        int i = 0;
+        int len = format.length();
+        while (i < len) {
+            char c = format.charAt(i);
+            Placeholder match = null;
+            if (c == '{' || c == '%') {
+                for (Placeholder p : PLACEHOLDERS) {
+                    if (format.startsWith(p.token, i)) {
+                        match = p;
+                        break;
+                    }
+                }
+            }
+            if (match == null) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            if (literal.length() > 0) {
+                segments.add(literalSegment(literal.toString()));
+                literalLength += literal.length();
+                literal.setLength(0);
+            }
+            segments.add(match);
+            used.add(match);
+            i += match.token.length();
+        }
+        if (literal.length() > 0) {
+            segments.add(literalSegment(literal.toString()));
+            literalLength += literal.length();
+        }
+
+        return new ChatFormatTemplate(format, segments.toArray(), Collections.unmodifiableSet(used), literalLength);
+    }
+
+    private static Object literalSegment(String text) {
+        return EXTERNAL.matcher(text).find() ? new External(text) : text;
+    }
+
+    /**
+     * Copy of this template with some %placeholders% filled in for good, e.g.
+     * ones that never change while the server runs. A placeholder the resolver
+     * returns unchanged (or null) is left for {@link Resolver#resolveExternal}.
+     *
+     * @param isFixed  which placeholder names (without %) to fill in
+     * @param resolver resolves a single %placeholder%
+     */
+    public ChatFormatTemplate expand(Predicate<String> isFixed, UnaryOperator<String> resolver) {
+        Object[] expanded = segments.clone();
+        for (int i = 0; i < expanded.length; i++) {
+            if (!(expanded[i] instanceof External external))
+                continue;
+            StringBuilder text = new StringBuilder(external.text().length());
+            Matcher m = EXTERNAL.matcher(external.text());
+            while (m.find()) {
+                String value = isFixed.test(m.group(1)) ? resolver.apply(m.group()) : null;
+                m.appendReplacement(text, Matcher.quoteReplacement(value != null ? value : m.group()));
+            }
+            m.appendTail(text);
+            expanded[i] = literalSegment(text.toString());
+        }
+        return new ChatFormatTemplate(source, expanded, used, literalLength);
+    }
+
+    /**
+     * Names (without %) of the PlaceholderAPI placeholders left to resolve per message.
+     */
+    public List<String> getExternalPlaceholders() {
+        List<String> names = new ArrayList<>();
+        for (Object segment : segments) {
+            if (segment instanceof External external) {
+                Matcher m = EXTERNAL.matcher(external.text());
+                while (m.find()) {
+                    names.add(m.group(1));
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Fill the template in one pass. The resolver is only called for placeholders
+     * present in the format, once per occurrence.
+     */
+    public String render(Resolver resolver) {
+        if (constant != null)
+            return constant;
+
+        StringBuilder out = new StringBuilder(literalLength + 64);
+        for (Object segment : segments) {
+            if (segment instanceof Placeholder p) {
+                String value = resolver.resolve(p);
+                if (value != null)
+                    out.append(value);
+            } else if (segment instanceof External external) {
+                out.append(resolver.resolveExternal(external.text()));
+            } else {
+                out.append((String) segment);
+            }
+        }
+        return out.toString();
+    }
+
+    public boolean uses(Placeholder placeholder) {
+        return used.contains(placeholder);
+    }
+
+    public Set<Placeholder> getPlaceholders() {
+        return used;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,111 @@
+package me.rexsystems.rexChat.utils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable trie of emoji aliases. {@link #apply(String)} replaces aliases in
+ * one left-to-right pass, preferring the longest alias at each position.
+ */
+final class EmojiTrie {
+    static final EmojiTrie EMPTY = build(Map.of());
+
+    // Per node: sorted transition chars and their target nodes
+    private final char[][] keys;
+    private final int[][] next;
+    // Replacement if an alias ends at this node, else null
+    private final String[] replacement;
+
+    private EmojiTrie(char[][] keys, int[][] next, String[] replacement) {
+        this.keys = keys;
+        this.next = next;
+        this.replacement = replacement;
+    }
+
+    /**
+     * Build from alias -&gt; replacement. Aliases are case-sensitive; empty aliases are ignored.
+     */
+    static EmojiTrie build(Map<String, String> aliases) {
+        java.util.List<TreeMap<Character, Integer>> nodes = new java.util.ArrayList<>();
+        java.util.List<String> values = new java.util.ArrayList<>();
+        nodes.add(new TreeMap<>());
+        values.add(null);
+
+        for (Map.Entry<String, String> e : aliases.entrySet()) {
+            String alias = e.getKey();
+            if (alias == null || alias.isEmpty())
+                continue;
+            int node = 0;
+            for (int k = 0; k < alias.length(); k++) {
+                Integer child = nodes.get(node).get(alias.charAt(k));
+                if (child == null) {
+                    child = nodes.size();
+                    nodes.add(new TreeMap<>());
+                    values.add(null);
+                    nodes.get(node).put(alias.charAt(k), child);
+                }
+                node = child;
+            }
+            values.set(node, e.getValue() != null ? e.getValue() : "");
+        }
+
+        int size = nodes.size();
+        char[][] keys = new char[size][];
+        int[][] next = new int[size][];
+        for (int n = 0; n < size; n++) {
+            TreeMap<Character, Integer> children = nodes.get(n);
+            keys[n] = new char[children.size()];
+            next[n] = new int[children.size()];
+            int j = 0;
+            for (Map.Entry<Character, Integer> c : children.entrySet()) {
+                keys[n][j] = c.getKey();
+                next[n][j] = c.getValue();
+                j++;
+            }
+        }
+        return new EmojiTrie(keys, next, values.toArray(new String[0]));
+    }
+
+    boolean isEmpty() {
+        return keys[0].length == 0;
+    }
+
+    String apply(String message) {
+        if (isEmpty())
+            return message;
+
+        StringBuilder out = null;
+        int len = message.length();
+        int copied = 0;
+        int i = 0;
+        while (i < len) {
+            // Walk the trie from i, remembering the longest alias seen
+            int node = 0;
+            int matchEnd = -1;
+            String matchValue = null;
+            for (int j = i; j < len; j++) {
+                int k = Arrays.binarySearch(keys[node], message.charAt(j));
+                if (k < 0)
+                    break;
+                node = next[node][k];
+                if (replacement[node] != null) {
+                    matchEnd = j + 1;
+                    matchValue = replacement[node];
+                }
+            }
+            if (matchEnd < 0) {
+                i++;
+                continue;
+            }
+            if (out == null)
+                out = new StringBuilder(len + 16);
+            out.append(message, copied, i).append(matchValue);
+            i = matchEnd;
+            copied = matchEnd;
+        }
+        if (out == null)
+            return message;
+        return out.append(message, copied, len).toString();
+    }
+}
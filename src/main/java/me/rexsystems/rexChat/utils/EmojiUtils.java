@@ -9,41 +9,56 @@ import java.util.Map;
 /**
  * Applies configurable chat emoji replacements.
  * Supports aliases like ":)" and shortcode ":smile:" mapping to the same replacement.
+ * The alias table is compiled into a trie on enable and on /rexchat reload.
  */
 public class EmojiUtils {
 
-    public static String apply(Player sender, String message, FileConfiguration cfg) {
-        if (message == null) return null;
-        try {
-            boolean enabled = cfg.getBoolean("chat-emoji.enabled", true);
-            if (!enabled) return message;
+    private static volatile EmojiTrie trie;
 
+    /**
+     * Compile chat-emoji.emojis. Called on enable and on /rexchat reload.
+     */
+    public static void load(FileConfiguration cfg) {
+        java.util.Map<String, String> aliases = new java.util.LinkedHashMap<>();
+        try {
             java.util.List<java.util.Map<?, ?>> emojis = cfg.getMapList("chat-emoji.emojis");
-            if (emojis == null || emojis.isEmpty()) return message;
-
-            String result = message;
             for (java.util.Map<?, ?> item : emojis) {
                 if (item == null) continue;
                 Object aliasesObj = item.get("aliases");
                 Object replacementObj = item.get("replacement");
                 if (!(aliasesObj instanceof List) || !(replacementObj instanceof String)) continue;
                 @SuppressWarnings("unchecked")
-                java.util.List<Object> aliases = (java.util.List<Object>) aliasesObj;
+                java.util.List<Object> list = (java.util.List<Object>) aliasesObj;
                 String replacement = (String) replacementObj;
-                if (replacement == null) replacement = "";
 
-                for (Object aliasObj : aliases) {
+                for (Object aliasObj : list) {
                     if (!(aliasObj instanceof String)) continue;
                     String alias = (String) aliasObj;
-                    if (alias == null || alias.isEmpty()) continue;
-                    // Simple literal replacement; case-sensitive by default
-                    result = result.replace(alias, replacement);
+                    if (alias.isEmpty()) continue;
+                    // Case-sensitive; the first emoji that defines an alias keeps it
+                    aliases.putIfAbsent(alias, replacement);
                 }
             }
+        } catch (Throwable ignored) {
+        }
+        trie = EmojiTrie.build(aliases);
+    }
+
+    public static String apply(Player sender, String message, FileConfiguration cfg) {
+        if (message == null) return null;
+        try {
+            boolean enabled = cfg.getBoolean("chat-emoji.enabled", true);
+            if (!enabled) return message;
 
-            return result;
+            EmojiTrie compiled = trie;
+            if (compiled == null) {
+                load(cfg);
+                compiled = trie;
+            }
+            // Single pass, longest alias wins at each position
+            return compiled.apply(message);
         } catch (Throwable ignored) {
             return message;
         }
     }
-}
\ No newline at end of file
+}
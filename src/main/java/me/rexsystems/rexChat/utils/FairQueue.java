@@ -0,0 +1,197 @@
+package me.rexsystems.rexChat.utils;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bounded work queue with one FIFO lane per key (sender). Workers take from
+ * the lanes in turn, so one busy key can't starve the others, and a key is
+ * handed to one worker at a time, so its items run in order. Priority keys
+ * are served before all others and are never shed to make room.
+ *
+ * When the queue or a lane is full the {@link ShedPolicy} decides what is
+ * dropped; the dropped item is returned from {@link #offer}.
+ *
+ * @param <K> lane key
+ * @param <T> item type
+ */
+public final class FairQueue<K, T> {
+
+    public enum ShedPolicy {
+        /** Reject the new item. */
+        DROP_NEWEST,
+        /** Drop the oldest item of the same lane, or of the longest lane when the queue is full. */
+        DROP_OLDEST
+    }
+
+    /**
+     * An item taken from the queue. Pass the key to {@link #done} when finished.
+     */
+    public record Entry<K, T>(K key, T item) {
+    }
+
+    private static final class Lane<T> {
+        final ArrayDeque<T> items = new ArrayDeque<>();
+        boolean priority;
+        // In one of the ready rings
+        boolean queued;
+        // Taken by a worker and not done yet
+        boolean busy;
+    }
+
+    private final int capacity;
+    private final int laneLimit;
+    private final ShedPolicy policy;
+    private final Map<K, Lane<T>> lanes = new HashMap<>();
+    private final ArrayDeque<K> priorityReady = new ArrayDeque<>();
+    private final ArrayDeque<K> ready = new ArrayDeque<>();
+    private int size;
+    private boolean closed;
+
+    public FairQueue(int capacity, int laneLimit, ShedPolicy policy) {
+        this.capacity = Math.max(1, capacity);
+        this.laneLimit = Math.max(1, laneLimit);
+        this.policy = policy;
+    }
+
+    /**
+     * Add an item to a key's lane.
+     *
+     * @param priority serve this lane before normal lanes
+     * @return null if nothing was dropped, the item itself if it was rejected,
+     *         or an older item that was dropped to make room
+     */
+    public synchronized T offer(K key, T item, boolean priority) {
+        if (closed)
+            return item;
+        Lane<T> lane = lanes.get(key);
+        if (lane == null) {
+            lane = new Lane<>();
+            lanes.put(key, lane);
+        }
+        lane.priority |= priority;
+
+        T shed = null;
+        if (lane.items.size() >= laneLimit) {
+            if (policy == ShedPolicy.DROP_NEWEST)
+                return item;
+            shed = lane.items.pollFirst();
+            size--;
+        } else if (size >= capacity) {
+            Lane<T> victim = priority || policy == ShedPolicy.DROP_OLDEST ? longestNormalLane() : null;
+            if (victim == null) {
+                if (lane.items.isEmpty() && !lane.busy && !lane.queued)
+                    lanes.remove(key);
+                return item;
+            }
+            // An emptied victim lane stays in its ring and is cleaned up by poll
+            shed = victim.items.pollFirst();
+            size--;
+        }
+
+        lane.items.addLast(item);
+        size++;
+        if (!lane.queued && !lane.busy) {
+            lane.queued = true;
+            (lane.priority ? priorityReady : ready).addLast(key);
+        }
+        notify();
+        return shed;
+    }
+
+    private Lane<T> longestNormalLane() {
+        Lane<T> longest = null;
+        for (Lane<T> lane : lanes.values()) {
+            if (!lane.priority && !lane.items.isEmpty()
+                    && (longest == null || lane.items.size() > longest.items.size()))
+                longest = lane;
+        }
+        return longest;
+    }
+
+    /**
+     * Take the next item without waiting, or null if none is ready.
+     */
+    public synchronized Entry<K, T> poll() {
+        while (true) {
+            K key = priorityReady.pollFirst();
+            if (key == null)
+                key = ready.pollFirst();
+            if (key == null)
+                return null;
+            Lane<T> lane = lanes.get(key);
+            lane.queued = false;
+            T item = lane.items.pollFirst();
+            if (item == null) {
+                lanes.remove(key);
+                continue;
+            }
+            size--;
+            lane.busy = true;
+            return new Entry<>(key, item);
+        }
+    }
+
+    /**
+     * Wait for the next item. Returns null once the queue is closed and empty.
+     */
+    public synchronized Entry<K, T> take() throws InterruptedException {
+        while (true) {
+            Entry<K, T> entry = poll();
+            if (entry != null || closed)
+                return entry;
+            wait();
+        }
+    }
+
+    /**
+     * Mark a key's taken item as finished, making its lane available again.
+     */
+    public synchronized void done(K key) {
+        Lane<T> lane = lanes.get(key);
+        if (lane == null)
+            return;
+        lane.busy = false;
+        if (lane.items.isEmpty()) {
+            lanes.remove(key);
+        } else {
+            lane.queued = true;
+            (lane.priority ? priorityReady : ready).addLast(key);
+            notify();
+        }
+    }
+
+    /**
+     * Stop accepting items. Waiting workers get the remaining items, then null.
+     */
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    /**
+     * Drop every waiting item. Items already taken still need {@link #done}.
+     *
+     * @return the number of items dropped
+     */
+    public synchronized int clear() {
+        int dropped = size;
+        lanes.values().removeIf(lane -> {
+            lane.items.clear();
+            lane.queued = false;
+            return !lane.busy;
+        });
+        priorityReady.clear();
+        ready.clear();
+        size = 0;
+        return dropped;
+    }
+
+    /**
+     * Number of items waiting.
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
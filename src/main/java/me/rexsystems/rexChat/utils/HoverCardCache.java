@@ -0,0 +1,173 @@
+package me.rexsystems.rexChat.utils;
+
+import me.rexsystems.rexChat.RexChat;
+import me.rexsystems.rexChat.service.ChatFormatManager;
+import net.kyori.adventure.text.Component;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The hover card shown on a chat line (chat-format.player.hover or a group's
+ * hover), kept per player so it is not rebuilt for every message.
+ *
+ * A card is built again when its fingerprint (group, world, display name,
+ * health and ping buckets) changes or it is older than
+ * chat-format.hover-cache.max-age. Prefix and permission changes drop it
+ * through the permission cache. Other values such as coordinates may lag by
+ * up to max-age.
+ */
+public class HoverCardCache {
+    private final RexChat plugin;
+    private final Map<UUID, Card> cards = new ConcurrentHashMap<>();
+    private final LongAdder builds = new LongAdder();
+    private volatile long maxAgeNanos;
+    private volatile int healthStep;
+    private volatile int pingStep;
+    // Compiled hover lines per group; null template = hover disabled
+    private volatile Map<String, ChatFormatTemplate> groupTemplates = Map.of();
+    private volatile ChatFormatTemplate defaultTemplate;
+
+    private record Fingerprint(String group, String world, String displayName, int health, int ping) {
+    }
+
+    public HoverCardCache(RexChat plugin) {
+        this.plugin = plugin;
+        plugin.getPermissionCache().addInvalidationListener(uuid -> {
+            if (uuid != null) {
+                cards.remove(uuid);
+            } else {
+                cards.clear();
+            }
+        });
+        reload();
+    }
+
+    /**
+     * Compile the hover lines and read chat-format.hover-cache. Called on enable and reload.
+     */
+    public void reload() {
+        FileConfiguration cfg = plugin.getConfigManager().getConfig();
+        double seconds = cfg.getDouble("chat-format.hover-cache.max-age", 5);
+        this.maxAgeNanos = (long) (Math.max(0, seconds) * 1_000_000_000L);
+        this.healthStep = Math.max(1, cfg.getInt("chat-format.hover-cache.health-step", 2));
+        this.pingStep = Math.max(1, cfg.getInt("chat-format.hover-cache.ping-step", 50));
+
+        String prefix = cfg.getString("messages.prefix", "");
+        boolean enabled = cfg.getBoolean("chat-format.player.hover.enabled", true);
+        List<String> lines = cfg.getStringList("chat-format.player.hover.lines");
+        this.defaultTemplate = compile(enabled, lines, prefix);
+
+        Map<String, ChatFormatTemplate> groups = new HashMap<>();
+        ConfigurationSection section = cfg.getConfigurationSection("chat-format.groups");
+        if (section != null) {
+            for (String group : section.getKeys(false)) {
+                String path = group + ".hover.";
+                boolean groupEnabled = section.isSet(path + "enabled") ? section.getBoolean(path + "enabled") : enabled;
+                List<String> groupLines = section.isList(path + "lines") ? section.getStringList(path + "lines") : lines;
+                groups.put(group, compile(groupEnabled, groupLines, prefix));
+            }
+        }
+        this.groupTemplates = groups;
+        cards.clear();
+    }
+
+    private static ChatFormatTemplate compile(boolean enabled, List<String> lines, String prefix) {
+        if (!enabled || lines.isEmpty())
+            return null;
+        return ChatFormatManager.compile(String.join("\n", lines).replace("%rc_prefix%", prefix));
+    }
+
+    /**
+     * The sender's hover card, or null if hover is off or has no lines for their group.
+     */
+    public Card get(Player sender, String group) {
+        ChatFormatTemplate template = group != null && groupTemplates.containsKey(group)
+                ? groupTemplates.get(group) : defaultTemplate;
+        if (template == null)
+            return null;
+
+        Fingerprint fingerprint = new Fingerprint(group, sender.getWorld().getName(), sender.getDisplayName(),
+                (int) Math.round(Math.max(0, sender.getHealth())) / healthStep,
+                MessageFormatter.getPing(sender) / pingStep);
+        long now = System.nanoTime();
+        Card card = cards.get(sender.getUniqueId());
+        if (card != null && card.template == template && card.fingerprint.equals(fingerprint)
+                && now - card.builtAt <= maxAgeNanos)
+            return card;
+
+        // {message} is filled in per message by the card
+        String text = template.render(new MessageFormatter.SenderPlaceholders(sender, "{message}",
+                plugin.getPrefixManager()));
+        card = new Card(template, fingerprint, now, text);
+        builds.increment();
+        if (maxAgeNanos > 0)
+            cards.put(sender.getUniqueId(), card);
+        return card;
+    }
+
+    public int size() {
+        return cards.size();
+    }
+
+    public long getBuildCount() {
+        return builds.sum();
+    }
+
+    /**
+     * A built hover card. The parsed Adventure and legacy forms are made on first
+     * use and reused, unless the lines contain {message}.
+     */
+    public static final class Card {
+        private final ChatFormatTemplate template;
+        private final Fingerprint fingerprint;
+        private final long builtAt;
+        private final String text;
+        private final boolean perMessage;
+        private volatile Component component;
+        private volatile BaseComponent[] legacy;
+
+        private Card(ChatFormatTemplate template, Fingerprint fingerprint, long builtAt, String text) {
+            this.template = template;
+            this.fingerprint = fingerprint;
+            this.builtAt = builtAt;
+            this.text = text;
+            this.perMessage = text.contains("{message}");
+        }
+
+        public Component component(String message) {
+            Component result = component;
+            if (result == null || perMessage) {
+                // Reset formatting at the start of each line to prevent color/style bleeding
+                result = ColorUtils.parseComponent(withMessage(message).replace("\n", "\n<reset>"));
+                if (!perMessage)
+                    component = result;
+            }
+            return result;
+        }
+
+        public BaseComponent[] legacy(String message) {
+            BaseComponent[] result = legacy;
+            if (result == null || perMessage) {
+                String hover = withMessage(message).replace("\n", "\n§r");
+                result = TextComponent.fromLegacyText(ColorUtils.translateLegacyColors(hover));
+                if (!perMessage)
+                    legacy = result;
+            }
+            return result;
+        }
+
+        private String withMessage(String message) {
+            return perMessage ? text.replace("{message}", message != null ? message : "") : text;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package me.rexsystems.rexChat.utils;
+
+/**
+ * Single-pass converter from mixed legacy/hex/MiniMessage text to a MiniMessage
+ * string, used by {@link ColorUtils#parseComponent(String)}.
+ *
+ * Understands &amp;-codes, §-codes, &amp;#RRGGBB, bare #RRGGBB, §x§R§R§G§G§B§B and
+ * protected hover/click wrappers, producing the same output as the previous
+ * regex/replace cascade without allocating an intermediate String per step.
+ */
+final class LegacyColorLexer {
+
+    private static final String HOVER_OPEN = "<hover:show_text:'";
+    private static final String CLICK_OPEN = "'><click:run_command:'";
+    private static final String LABEL_OPEN = "'>";
+    private static final String TAG_CLOSE = "</click></hover>";
+    // Marker used for lone ampersands in the legacy text (kept for URL detection parity)
+    private static final String LONE_AMP = "__LONE_AMP__";
+
+    private static final String[] CODE_TAGS = new String[128];
+
+    static {
+        CODE_TAGS['0'] = "<reset><black>";
+        CODE_TAGS['1'] = "<reset><dark_blue>";
+        CODE_TAGS['2'] = "<reset><dark_green>";
+        CODE_TAGS['3'] = "<reset><dark_aqua>";
+        CODE_TAGS['4'] = "<reset><dark_red>";
+        CODE_TAGS['5'] = "<reset><dark_purple>";
+        CODE_TAGS['6'] = "<reset><gold>";
+        CODE_TAGS['7'] = "<reset><gray>";
+        CODE_TAGS['8'] = "<reset><dark_gray>";
+        CODE_TAGS['9'] = "<reset><blue>";
+        CODE_TAGS['a'] = "<reset><green>";
+        CODE_TAGS['b'] = "<reset><aqua>";
+        CODE_TAGS['c'] = "<reset><red>";
+        CODE_TAGS['d'] = "<reset><light_purple>";
+        CODE_TAGS['e'] = "<reset><yellow>";
+        CODE_TAGS['f'] = "<reset><white>";
+        CODE_TAGS['k'] = "<obfuscated>";
+        CODE_TAGS['l'] = "<bold>";
+        CODE_TAGS['m'] = "<strikethrough>";
+        CODE_TAGS['n'] = "<underlined>";
+        CODE_TAGS['o'] = "<italic>";
+        CODE_TAGS['r'] = "<reset>";
+    }
+
+    private LegacyColorLexer() {
+    }
+
+    /**
+     * Convert text to a MiniMessage string.
+     *
+     * @param text   input with legacy, hex and/or MiniMessage formatting
+     * @param legacy optional sink for the intermediate legacy form (hex codes
+     *               still as &amp;#RRGGBB), used for URL detection and the
+     *               legacy fallback; may be null
+     */
+    static String toMiniMessage(String text, StringBuilder legacy) {
+        int len = text.length();
+        StringBuilder out = new StringBuilder(len + 32);
+        // Last character of the legacy form, used as lookbehind for bare #RRGGBB
+        char prev = 0;
+        int i = 0;
+
+        while (i < len) {
+            char c = text.charAt(i);
+
+            if (c == '<') {
+                int end = matchProtectedTag(text, i);
+                if (end > 0) {
+                    prev = appendProtectedTag(text, i, end, out, legacy, prev);
+                    i = end;
+                    continue;
+                }
+            } else if (c == '&') {
+                char next = i + 1 < len ? text.charAt(i + 1) : 0;
+                if (isColorCode(next)) {
+                    String tag = CODE_TAGS[Character.toLowerCase(next)];
+                    out.append(tag);
+                    if (legacy != null)
+                        legacy.append(tag);
+                    prev = '>';
+                    i += 2;
+                    continue;
+                }
+                if (next == '#' && i + 7 < len && isHex(text, i + 2, 6)) {
+                    appendHex(text, i + 2, out);
+                    if (legacy != null)
+                        legacy.append(text, i, i + 8);
+                    prev = text.charAt(i + 7);
+                    i += 8;
+                    continue;
+                }
+                // Lone ampersand: keep it literally
+                out.append('&');
+                if (legacy != null)
+                    legacy.append(LONE_AMP);
+                prev = '_';
+                i++;
+                continue;
+            } else if (c == '§') {
+                int consumed = sectionCode(text, i, out, legacy);
+                if (consumed > 0) {
+                    prev = consumed == 2 ? '>' : text.charAt(i + consumed - 1);
+                    i += consumed;
+                    continue;
+                }
+            } else if (c == '#') {
+                if (prev != ':' && prev != '&' && prev != '<' && isHex(text, i + 1, 6)) {
+                    int mark = out.length();
+                    appendHex(text, i + 1, out);
+                    if (legacy != null)
+                        legacy.append(out, mark, out.length());
+                    prev = text.charAt(i + 6);
+                    i += 7;
+                    continue;
+                }
+            }
+
+            out.append(c);
+            if (legacy != null)
+                legacy.append(c);
+            prev = c;
+            i++;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Handle a literal § at i. Returns the number of input chars consumed, or 0
+     * if the § should be kept as-is.
+     */
+    private static int sectionCode(String text, int i, StringBuilder out, StringBuilder legacy) {
+        int len = text.length();
+        if (i + 1 >= len)
+            return 0;
+        char next = text.charAt(i + 1);
+
+        if (next == 'x') {
+            // §x§R§R§G§G§B§B (any of the six §h may also be written as &h)
+            int j = i + 2;
+            char[] hex = new char[6];
+            for (int k = 0; k < 6; k++) {
+                if (j + 1 >= len)
+                    return 0;
+                char marker = text.charAt(j);
+                char h = text.charAt(j + 1);
+                if (marker == '§' && isHexChar(h)) {
+                    hex[k] = h;
+                } else if (marker == '&' && isHexChar(h)) {
+                    hex[k] = Character.toLowerCase(h);
+                } else {
+                    return 0;
+                }
+                j += 2;
+            }
+            out.append("<reset><#").append(hex).append('>');
+            if (legacy != null)
+                legacy.append("&#").append(hex);
+            return j - i;
+        }
+
+        // Only lowercase § codes are converted; §C and friends stay literal
+        if (next < 128 && CODE_TAGS[next] != null) {
+            String tag = CODE_TAGS[next];
+            out.append(tag);
+            if (legacy != null)
+                legacy.append(tag);
+            return 2;
+        }
+        return 0;
+    }
+
+    /**
+     * Copy a protected hover/click wrapper verbatim, only converting hex colors inside it.
+     */
+    private static char appendProtectedTag(String text, int start, int end, StringBuilder out,
+                                           StringBuilder legacy, char prev) {
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (c == '&' && i + 1 < end && text.charAt(i + 1) == '#' && isHex(text, i + 2, 6)) {
+                appendHex(text, i + 2, out);
+                if (legacy != null)
+                    legacy.append(text, i, i + 8);
+                prev = text.charAt(i + 7);
+                i += 8;
+                continue;
+            }
+            if (c == '#' && prev != ':' && prev != '&' && prev != '<' && isHex(text, i + 1, 6)) {
+                int mark = out.length();
+                appendHex(text, i + 1, out);
+                if (legacy != null)
+                    legacy.append(out, mark, out.length());
+                prev = text.charAt(i + 6);
+                i += 7;
+                continue;
+            }
+            out.append(c);
+            if (legacy != null)
+                legacy.append(c);
+            prev = c;
+            i++;
+        }
+        return prev;
+    }
+
+    /**
+     * Match &lt;hover:show_text:'...'&gt;&lt;click:run_command:'...'&gt;label&lt;/click&gt;&lt;/hover&gt;
+     * at start (case-insensitive, '' escapes a quote). Returns the end index or -1.
+     */
+    static int matchProtectedTag(String text, int start) {
+        int len = text.length();
+        if (!startsWithIgnoreCase(text, start, HOVER_OPEN))
+            return -1;
+        int j = skipQuoted(text, start + HOVER_OPEN.length());
+        if (j < 0 || !startsWithIgnoreCase(text, j, CLICK_OPEN))
+            return -1;
+        j = skipQuoted(text, j + CLICK_OPEN.length());
+        if (j < 0 || !startsWithIgnoreCase(text, j, LABEL_OPEN))
+            return -1;
+        for (int k = j + LABEL_OPEN.length(); k + TAG_CLOSE.length() <= len; k++) {
+            if (startsWithIgnoreCase(text, k, TAG_CLOSE))
+                return k + TAG_CLOSE.length();
+        }
+        return -1;
+    }
+
+    // Skip a quoted value where '' is an escaped quote; returns the index of the closing quote
+    private static int skipQuoted(String text, int j) {
+        int len = text.length();
+        while (j < len) {
+            if (text.charAt(j) != '\'') {
+                j++;
+            } else if (j + 1 < len && text.charAt(j + 1) == '\'') {
+                j += 2;
+            } else {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    // ASCII-only case-insensitive prefix check
+    private static boolean startsWithIgnoreCase(String text, int offset, String prefix) {
+        if (offset < 0 || offset + prefix.length() > text.length())
+            return false;
+        for (int k = 0; k < prefix.length(); k++) {
+            char a = text.charAt(offset + k);
+            char b = prefix.charAt(k);
+            if (a == b)
+                continue;
+            if (a >= 'A' && a <= 'Z')
+                a = (char) (a + 32);
+            if (a != b)
+                return false;
+        }
+        return true;
+    }
+
+    private static void appendHex(String text, int from, StringBuilder out) {
+        out.append("<reset><#").append(text, from, from + 6).append('>');
+    }
+
+    private static boolean isColorCode(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')
+                || (c >= 'k' && c <= 'o') || (c >= 'K' && c <= 'O') || c == 'r' || c == 'R';
+    }
+
+    private static boolean isHexChar(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static boolean isHex(String text, int from, int count) {
+        if (from + count > text.length())
+            return false;
+        for (int k = from; k < from + count; k++) {
+            if (!isHexChar(text.charAt(k)))
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,117 @@
+package me.rexsystems.rexChat.utils;
+
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Online player names for mention matching, updated one player at a time on
+ * join/quit. The player map is copy-on-write and versioned; the automaton is
+ * rebuilt lazily by the next chat message after a change, by one thread and at
+ * most once per {@value #MIN_REBUILD_MILLIS} ms. Meanwhile chat keeps using the
+ * previous snapshot, so during a join storm a new name may take a moment to
+ * become mentionable, but chat never pays for a rebuild per join. Chat threads
+ * only ever see a complete, immutable {@link Snapshot}.
+ */
+public final class MentionIndex {
+    // About one server tick
+    private static final long MIN_REBUILD_MILLIS = 50;
+
+    private record State(long version, Map<UUID, Player> players) {
+    }
+
+    /**
+     * Immutable view used by one chat message. Match ids index into players().
+     */
+    public record Snapshot(long version, Player[] players, MentionMatcher matcher) {
+    }
+
+    private final Object writeLock = new Object();
+    private volatile State state = new State(0, Collections.emptyMap());
+    private final AtomicReference<Snapshot> snapshot =
+            new AtomicReference<>(new Snapshot(0, new Player[0], MentionMatcher.empty()));
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile long lastRebuild = System.nanoTime() - MIN_REBUILD_MILLIS * 1_000_000L;
+
+    public void add(Player player) {
+        synchronized (writeLock) {
+            Map<UUID, Player> copy = new LinkedHashMap<>(state.players());
+            copy.put(player.getUniqueId(), player);
+            state = new State(state.version() + 1, Collections.unmodifiableMap(copy));
+        }
+    }
+
+    public void remove(UUID uuid) {
+        synchronized (writeLock) {
+            if (!state.players().containsKey(uuid))
+                return;
+            Map<UUID, Player> copy = new LinkedHashMap<>(state.players());
+            copy.remove(uuid);
+            state = new State(state.version() + 1, Collections.unmodifiableMap(copy));
+        }
+    }
+
+    /**
+     * Replace the whole index, e.g. with the online players on enable.
+     */
+    public void reset(Collection<? extends Player> players) {
+        Map<UUID, Player> copy = new LinkedHashMap<>();
+        for (Player p : players) {
+            copy.put(p.getUniqueId(), p);
+        }
+        synchronized (writeLock) {
+            state = new State(state.version() + 1, Collections.unmodifiableMap(copy));
+        }
+    }
+
+    /**
+     * Current snapshot, rebuilding the automaton first if names changed since the
+     * last one. Returns the previous snapshot while another thread rebuilds or the
+     * last rebuild was too recent.
+     */
+    public Snapshot snapshot() {
+        State current = state;
+        Snapshot snap = snapshot.get();
+        if (snap.version() == current.version())
+            return snap;
+        if (System.nanoTime() - lastRebuild < MIN_REBUILD_MILLIS * 1_000_000L
+                || !rebuilding.compareAndSet(false, true))
+            return snap;
+        try {
+            return rebuild(state);
+        } finally {
+            lastRebuild = System.nanoTime();
+            rebuilding.set(false);
+        }
+    }
+
+    private Snapshot rebuild(State current) {
+        Player[] players = current.players().values().toArray(new Player[0]);
+        List<String> names = new ArrayList<>(players.length);
+        for (Player p : players) {
+            names.add(p.getName());
+        }
+        Snapshot built = new Snapshot(current.version(), players, MentionMatcher.build(names));
+        rebuilds.incrementAndGet();
+        snapshot.set(built);
+        return built;
+    }
+
+    public int size() {
+        return state.players().size();
+    }
+
+    public long getRebuildCount() {
+        return rebuilds.get();
+    }
+}
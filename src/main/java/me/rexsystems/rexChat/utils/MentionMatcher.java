@@ -0,0 +1,203 @@
+package me.rexsystems.rexChat.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aho-Corasick automaton over player names for finding mentions in one pass.
+ * Matching is case-insensitive. A mention is either "@Name" (no trailing
+ * boundary, like before) or, when by-name is enabled, "Name" not surrounded
+ * by word characters. Overlapping hits are resolved leftmost-longest.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class MentionMatcher {
+    private static final MentionMatcher EMPTY = build(List.of());
+
+    private final String[] names;
+    // Per node: sorted transition chars and their target nodes
+    private final char[][] keys;
+    private final int[][] next;
+    private final int[] fail;
+    // Name id ending at this node, or -1
+    private final int[] word;
+    // Nearest node on the fail chain that ends a name, or -1
+    private final int[] dict;
+    private final int[] depth;
+
+    private MentionMatcher(String[] names, char[][] keys, int[][] next, int[] fail, int[] word, int[] dict,
+                           int[] depth) {
+        this.names = names;
+        this.keys = keys;
+        this.next = next;
+        this.fail = fail;
+        this.word = word;
+        this.dict = dict;
+        this.depth = depth;
+    }
+
+    public static MentionMatcher empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build a matcher for the given names. The id of a name is its index in the list.
+     * Names that only differ by case share the id of the first one.
+     */
+    public static MentionMatcher build(List<String> names) {
+        List<Map<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> words = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        trie.add(new HashMap<>());
+        words.add(-1);
+        depths.add(0);
+
+        for (int id = 0; id < names.size(); id++) {
+            String name = names.get(id);
+            if (name == null || name.isEmpty())
+                continue;
+            int node = 0;
+            for (int k = 0; k < name.length(); k++) {
+                char c = Character.toLowerCase(name.charAt(k));
+                Integer child = trie.get(node).get(c);
+                if (child == null) {
+                    child = trie.size();
+                    trie.add(new HashMap<>());
+                    words.add(-1);
+                    depths.add(k + 1);
+                    trie.get(node).put(c, child);
+                }
+                node = child;
+            }
+            if (words.get(node) < 0)
+                words.set(node, id);
+        }
+
+        int size = trie.size();
+        char[][] keys = new char[size][];
+        int[][] next = new int[size][];
+        int[] word = new int[size];
+        int[] depth = new int[size];
+        for (int n = 0; n < size; n++) {
+            Map<Character, Integer> children = trie.get(n);
+            char[] k = new char[children.size()];
+            int idx = 0;
+            for (char c : children.keySet())
+                k[idx++] = c;
+            java.util.Arrays.sort(k);
+            int[] t = new int[k.length];
+            for (int j = 0; j < k.length; j++)
+                t[j] = children.get(k[j]);
+            keys[n] = k;
+            next[n] = t;
+            word[n] = words.get(n);
+            depth[n] = depths.get(n);
+        }
+
+        // Breadth-first fail links
+        int[] fail = new int[size];
+        int[] dict = new int[size];
+        java.util.Arrays.fill(dict, -1);
+        int[] queue = new int[size];
+        int head = 0, tail = 0;
+        for (int child : next[0]) {
+            fail[child] = 0;
+            queue[tail++] = child;
+        }
+        while (head < tail) {
+            int n = queue[head++];
+            for (int j = 0; j < keys[n].length; j++) {
+                char c = keys[n][j];
+                int child = next[n][j];
+                int f = fail[n];
+                int target;
+                while ((target = step(keys, next, f, c)) < 0 && f != 0)
+                    f = fail[f];
+                fail[child] = Math.max(target, 0);
+                dict[child] = word[fail[child]] >= 0 ? fail[child] : dict[fail[child]];
+                queue[tail++] = child;
+            }
+        }
+
+        return new MentionMatcher(names.toArray(new String[0]), keys, next, fail, word, dict, depth);
+    }
+
+    private static int step(char[][] keys, int[][] next, int node, char c) {
+        int j = java.util.Arrays.binarySearch(keys[node], c);
+        return j >= 0 ? next[node][j] : -1;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Find all mentions in text.
+     *
+     * @param byName also match names without a leading @
+     * @return non-overlapping matches ordered by position
+     */
+    public List<Match> find(String text, boolean byName) {
+        if (text == null || text.isEmpty() || names.length == 0)
+            return List.of();
+
+        List<Match> candidates = null;
+        int len = text.length();
+        int state = 0;
+        for (int i = 0; i < len; i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int target;
+            while ((target = step(keys, next, state, c)) < 0 && state != 0)
+                state = fail[state];
+            state = Math.max(target, 0);
+
+            for (int n = word[state] >= 0 ? state : dict[state]; n >= 0; n = dict[n]) {
+                int start = i + 1 - depth[n];
+                Match m = null;
+                if (start > 0 && text.charAt(start - 1) == '@') {
+                    m = new Match(start - 1, i + 1, word[n]);
+                } else if (byName && (start == 0 || !isWordChar(text.charAt(start - 1)))
+                        && (i + 1 == len || !isWordChar(text.charAt(i + 1)))) {
+                    m = new Match(start, i + 1, word[n]);
+                }
+                if (m != null) {
+                    if (candidates == null)
+                        candidates = new ArrayList<>();
+                    candidates.add(m);
+                }
+            }
+        }
+        if (candidates == null)
+            return List.of();
+
+        // Leftmost first, then longest
+        candidates.sort((a, b) -> a.start != b.start ? Integer.compare(a.start, b.start)
+                : Integer.compare(b.end, a.end));
+        List<Match> result = new ArrayList<>(candidates.size());
+        int lastEnd = 0;
+        for (Match m : candidates) {
+            if (m.start >= lastEnd) {
+                result.add(m);
+                lastEnd = m.end;
+            }
+        }
+        return result;
+    }
+
+    // Same as \w in Java regex without UNICODE_CHARACTER_CLASS
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /**
+     * A mention at [start, end) of the scanned text; start includes the @ if present.
+     */
+    public record Match(int start, int end, int id) {
+    }
+}
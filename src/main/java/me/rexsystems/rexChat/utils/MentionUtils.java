@@ -6,79 +6,59 @@ import org.bukkit.Sound;
 import org.bukkit.entity.Player;
 import org.bukkit.configuration.file.FileConfiguration;
 
-import java.util.HashSet;
-import java.util.Locale;
-import java.util.Set;
+import java.util.BitSet;
 
 /**
  * Utilities for @mention parsing, highlighting, and playing configurable sounds.
  */
 public class MentionUtils {
 
-    // Cache compiled patterns per player name to avoid recompilation on every message
-    private static final java.util.concurrent.ConcurrentHashMap<String, java.util.regex.Pattern> NAME_PATTERN_CACHE 
-        = new java.util.concurrent.ConcurrentHashMap<>();
-    private static final java.util.concurrent.ConcurrentHashMap<String, java.util.regex.Pattern> AT_PATTERN_CACHE 
-        = new java.util.concurrent.ConcurrentHashMap<>();
-
-    private static java.util.regex.Pattern getNamePattern(String playerName) {
-        return NAME_PATTERN_CACHE.computeIfAbsent(playerName, name -> {
-            String regex = "(?i)(?<!\\w)" + java.util.regex.Pattern.quote(name) + "(?!\\w)";
-            return java.util.regex.Pattern.compile(regex);
-        });
-    }
+    // Online names for mention matching, maintained incrementally on join/quit
+    private static final MentionIndex INDEX = new MentionIndex();
 
-    private static java.util.regex.Pattern getAtPattern(String playerName) {
-        return AT_PATTERN_CACHE.computeIfAbsent(playerName, name -> {
-            String regex = "(?i)@" + java.util.regex.Pattern.quote(name);
-            return java.util.regex.Pattern.compile(regex);
-        });
+    public static MentionIndex getIndex() {
+        return INDEX;
     }
 
     /**
-     * Clear cached patterns (call on player join/quit to keep cache fresh).
+     * Resync the mention index with the current online players (used on enable).
      */
     public static void invalidateCache() {
-        NAME_PATTERN_CACHE.clear();
-        AT_PATTERN_CACHE.clear();
+        INDEX.reset(Bukkit.getOnlinePlayers());
     }
 
     public static boolean isEnabled(FileConfiguration cfg) {
         return cfg.getBoolean("mention.enabled", true);
     }
 
-    public static Set<Player> findMentionedPlayers(String rawMessage, FileConfiguration cfg) {
-        Set<Player> targets = new HashSet<>();
+    /**
+     * Player slots (see {@link SlotRegistry}) of the players mentioned in the message.
+     */
+    public static BitSet findMentionedPlayers(RexChat plugin, String rawMessage) {
+        BitSet targets = new BitSet();
+        FileConfiguration cfg = plugin.getConfigManager().getConfig();
         if (!isEnabled(cfg)) return targets;
         if (rawMessage == null || rawMessage.isEmpty()) return targets;
 
-        String lower = rawMessage.toLowerCase(Locale.ROOT);
         boolean byName = cfg.getBoolean("mention.by-name", true);
-        for (Player p : Bukkit.getOnlinePlayers()) {
-            String pname = p.getName();
-            String atNeedle = "@" + pname.toLowerCase(Locale.ROOT);
-            boolean matched = lower.contains(atNeedle);
-            if (!matched && byName) {
-                try {
-                    java.util.regex.Pattern pat = getNamePattern(pname);
-                    matched = pat.matcher(rawMessage).find();
-                } catch (Throwable ignored) { }
-            }
-            if (matched) {
-                targets.add(p);
-            }
+        MentionIndex.Snapshot online = INDEX.snapshot();
+        for (MentionMatcher.Match m : online.matcher().find(rawMessage, byName)) {
+            plugin.getPlayerSlots().mark(targets, online.players()[m.id()].getUniqueId());
         }
         return targets;
     }
 
-    public static void playMentionEffects(RexChat plugin, Player sender, Set<Player> targets) {
+    /**
+     * @param targets slots of the mentioned players
+     */
+    public static void playMentionEffects(RexChat plugin, Player sender, BitSet targets) {
         if (targets == null || targets.isEmpty()) return;
         FileConfiguration cfg = plugin.getConfigManager().getConfig();
         if (!isEnabled(cfg)) return;
 
         // Prevent self-mention triggers if enabled (default: true)
         boolean preventSelf = cfg.getBoolean("mention.prevent-self", true);
-        java.util.Set<Player> effectiveTargets = new java.util.HashSet<>(targets);
+        java.util.List<Player> effectiveTargets = plugin.getPlayerSlots().collect(targets);
         if (preventSelf && sender != null) {
             effectiveTargets.remove(sender);
         }
@@ -178,28 +158,38 @@ public class MentionUtils {
      * @return the message with mention highlights applied
      */
     public static String applyHighlight(Player sender, String message, FileConfiguration cfg, String restoreColor) {
+        return applyHighlight(sender, message, cfg, restoreColor, null);
+    }
+
+    /**
+     * Apply mention highlighting only for players accepted by the filter.
+     * Used for per-viewer rendering, where each viewer only sees their own name highlighted.
+     *
+     * @param filter which mentioned players to highlight, or null to highlight everyone
+     */
+    public static String applyHighlight(Player sender, String message, FileConfiguration cfg, String restoreColor,
+                                        java.util.function.Predicate<Player> filter) {
         if (!isEnabled(cfg)) return message;
         if (message == null || message.isEmpty()) return message;
 
         String color = cfg.getString("mention.color", "&6");
         boolean byName = cfg.getBoolean("mention.by-name", true);
-        String result = message;
-        for (Player p : Bukkit.getOnlinePlayers()) {
-            String name = p.getName();
-            try {
-                // Highlight @Name
-                java.util.regex.Pattern atPat = getAtPattern(name);
-                String replacementAt = java.util.regex.Matcher.quoteReplacement(color + "@" + name + restoreColor);
-                result = atPat.matcher(result).replaceAll(replacementAt);
-                // Highlight plain Name if enabled and not part of a larger word
-                if (byName) {
-                    java.util.regex.Pattern pat = getNamePattern(name);
-                    String replacementName = java.util.regex.Matcher.quoteReplacement(color + "@" + name + restoreColor);
-                    result = pat.matcher(result).replaceAll(replacementName);
-                }
-            } catch (Throwable ignored) { }
+        MentionIndex.Snapshot online = INDEX.snapshot();
+        java.util.List<MentionMatcher.Match> matches = online.matcher().find(message, byName);
+        if (matches.isEmpty()) return message;
+
+        // Single pass: copy text between matches, replace each match with the highlighted name
+        StringBuilder result = new StringBuilder(message.length() + matches.size() * 8);
+        int last = 0;
+        for (MentionMatcher.Match m : matches) {
+            Player p = online.players()[m.id()];
+            if (filter != null && !filter.test(p)) continue;
+            result.append(message, last, m.start())
+                  .append(color).append('@').append(p.getName()).append(restoreColor);
+            last = m.end();
         }
-        return result;
+        result.append(message, last, message.length());
+        return result.toString();
     }
 
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 
 import me.rexsystems.rexChat.RexChat;
+import me.rexsystems.rexChat.service.ProximityManager;
 import me.rexsystems.rexChat.utils.SchedulerUtils;
 import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.chat.TextComponent;
@@ -28,6 +29,16 @@ public class MessageFormatter {
     }
 
     public void sendFormattedChat(Player sender, String message) {
+        sendFormattedChat(sender, message, null);
+    }
+
+    /**
+     * Send a chat line and play mention effects for the mentioned players who
+     * actually receive it.
+     *
+     * @param mentioned slots of the mentioned players, or null for no mention effects
+     */
+    public void sendFormattedChat(Player sender, String message, java.util.BitSet mentioned) {
         FileConfiguration cfg = plugin.getConfigManager().getConfig();
         boolean enabled = cfg.getBoolean("chat-format.enabled", true);
 
@@ -35,154 +46,242 @@ public class MessageFormatter {
             // Fallback to vanilla handling
             return;
         }
-        if (MessageUtils.isLegacy()) {
-            // Legacy path: convert our MiniMessage token wrappers to Bungee components
-            String rendered = buildRenderedString(sender, message);
-
-            java.util.List<BaseComponent> out = new java.util.ArrayList<>();
-            String s = rendered;
-            // FIXED: use a global, case-insensitive, dot-all pattern to catch every wrapper
-            java.util.regex.Pattern pat = LEGACY_TOKEN_PATTERN;
-            java.util.regex.Matcher m = pat.matcher(s);
-            int pos = 0;
-            boolean hadToken = false;
-            while (m.find()) {
-                hadToken = true;
-                String pre = s.substring(pos, m.start());
-                if (!pre.isEmpty()) {
-                    String preLegacy = ColorUtils.translateLegacyColors(pre);
-                    BaseComponent[] preComp = TextComponent.fromLegacyText(preLegacy);
-                    for (BaseComponent c : preComp)
-                        out.add(c);
-                }
 
-                String hover = m.group(1).replace("''", "'");
-                String cmd = m.group(2).replace("''", "'");
-                String label = m.group(3).replace("''", "'");
-
-                String labelLegacy = ColorUtils.translateLegacyColors(label);
-                BaseComponent[] labelComps = TextComponent.fromLegacyText(labelLegacy);
-                BaseComponent[] hoverComps = TextComponent.fromLegacyText(ColorUtils.translateLegacyColors(hover));
-                for (BaseComponent lc : labelComps) {
-                    lc.setHoverEvent(new net.md_5.bungee.api.chat.HoverEvent(
-                            net.md_5.bungee.api.chat.HoverEvent.Action.SHOW_TEXT, hoverComps));
-                    lc.setClickEvent(new net.md_5.bungee.api.chat.ClickEvent(
-                            net.md_5.bungee.api.chat.ClickEvent.Action.RUN_COMMAND, cmd));
-                    out.add(lc);
+        // Messages of a player focused on a channel go to that channel's members only
+        me.rexsystems.rexChat.service.ChannelManager channels = plugin.getChannelManager();
+        if (channels != null && channels.isEnabled()) {
+            me.rexsystems.rexChat.service.ChannelManager.Channel channel = channels.getFocusedChannel(sender);
+            if (channel != null) {
+                if (channels.canUse(sender, channel)) {
+                    sendToChannel(sender, channel, message, mentioned);
+                    return;
                 }
-
-                pos = m.end();
-            }
-            String tail = s.substring(pos);
-            if (!tail.isEmpty()) {
-                String tailLegacy = ColorUtils.translateLegacyColors(tail);
-                BaseComponent[] tailComp = TextComponent.fromLegacyText(tailLegacy);
-                for (BaseComponent c : tailComp)
-                    out.add(c);
+                // Lost access to the channel: back to normal chat
+                channels.setFocus(sender, null);
             }
+        }
 
-            BaseComponent[] base;
-            if (!hadToken) {
-                // No tokens found: apply global hover/click to entire message
-                String legacy = ColorUtils.translateLegacyColors(rendered);
-                base = TextComponent.fromLegacyText(legacy);
-
-                if (isHoverEnabled(sender, cfg)) {
-                    java.util.List<String> lines = getHoverLines(sender, cfg);
-                    if (!lines.isEmpty()) {
-                        String prefix = cfg.getString("messages.prefix", "");
-                        String chatPrefix = PrefixUtils.getChatPrefix(sender, cfg);
-                        String hoverJoined = String.join("\n", lines)
-                                .replace("%rc_prefix%", prefix)
-                                .replace("{prefix}", chatPrefix)
-                                .replace("{player}", sender.getName())
-                                .replace("{name}", sender.getName())
-                                .replace("{display_name}", sender.getDisplayName())
-                                .replace("{message}", message)
-                                .replace("{world}", sender.getWorld().getName())
-                                .replace("{health}", String.valueOf((int) Math.round(sender.getHealth())))
-                                .replace("{max_health}", String.valueOf((int) Math.round(sender.getMaxHealth())))
-                                .replace("{x}", String.valueOf(sender.getLocation().getBlockX()))
-                                .replace("{y}", String.valueOf(sender.getLocation().getBlockY()))
-                                .replace("{z}", String.valueOf(sender.getLocation().getBlockZ()))
-                                .replace("{ping}", String.valueOf(getPing(sender)));
-                        hoverJoined = PapiUtils.apply(sender, hoverJoined);
-                        // Reset formatting at the start of each line to prevent color/style bleeding
-                        hoverJoined = hoverJoined.replace("\n", "\n§r");
-                        String hoverLegacy = ColorUtils.translateLegacyColors(hoverJoined);
-                        BaseComponent[] hoverComp = TextComponent.fromLegacyText(hoverLegacy);
-
-                        for (BaseComponent c : base) {
-                            c.setHoverEvent(new net.md_5.bungee.api.chat.HoverEvent(
-                                    net.md_5.bungee.api.chat.HoverEvent.Action.SHOW_TEXT, hoverComp));
-                            c.setClickEvent(new net.md_5.bungee.api.chat.ClickEvent(
-                                    net.md_5.bungee.api.chat.ClickEvent.Action.SUGGEST_COMMAND,
-                                    "/msg " + sender.getName() + " "));
-                        }
-                    } else {
-                        for (BaseComponent c : base) {
-                            c.setClickEvent(new net.md_5.bungee.api.chat.ClickEvent(
-                                    net.md_5.bungee.api.chat.ClickEvent.Action.SUGGEST_COMMAND,
-                                    "/msg " + sender.getName() + " "));
-                        }
-                    }
-                } else {
-                    for (BaseComponent c : base) {
-                        c.setClickEvent(new net.md_5.bungee.api.chat.ClickEvent(
-                                net.md_5.bungee.api.chat.ClickEvent.Action.SUGGEST_COMMAND,
-                                "/msg " + sender.getName() + " "));
-                    }
+        // Pick the proximity range (or global chat) first; it decides the format,
+        // the range indicator and the recipients, which are looked up only once
+        ProximityManager.ChatRange range = null;
+        ProximityManager proximity = plugin.getProximityManager();
+        if (proximity != null && proximity.isLimited(sender)) {
+            range = proximity.matchRange(sender, message);
+            if (range != null) {
+                long wait = proximity.tryUseRange(sender, range);
+                if (wait > 0) {
+                    String prefix = cfg.getString("messages.prefix", "");
+                    MessageUtils.sendMessage(sender, cfg.getString("chat-management.proximity.cooldown-message",
+                                    "%rc_prefix%&cYou can use {range} chat again in {seconds}s.")
+                            .replace("%rc_prefix%", prefix)
+                            .replace("{range}", range.name())
+                            .replace("{seconds}", String.valueOf((wait + 999) / 1000)));
+                    return;
                 }
+                message = message.substring(range.prefix().length()).trim();
+                if (message.isEmpty())
+                    return;
             } else {
-                base = out.toArray(new BaseComponent[0]);
+                range = proximity.getDefaultRange();
             }
+        }
+        java.util.BitSet recipients = findRecipients(sender, range, cfg);
+        playMentionEffects(sender, mentioned, recipients);
 
-            // Send to players based on proximity settings
-            sendToRecipients(sender, base, cfg);
+        // Render once; player, legacy and console outputs all derive from the same string
+        RenderedChat chat = render(sender, message, null, range);
+        if (MessageUtils.isLegacy()) {
+            deliver(recipients, chat.legacy());
             // Console: strip any remaining wrappers and print plain text
-            String consolePlain = rendered
-                    .replaceAll(STRIP_TOKEN_PATTERN.pattern(), "$1");
-            MessageUtils.sendMessage(Bukkit.getConsoleSender(), consolePlain);
+            MessageUtils.sendMessage(Bukkit.getConsoleSender(), chat.consolePlain());
             return;
         }
 
-        Component component = buildFormattedComponent(sender, message);
-        Component finalComponent = component;
-        // Send to players based on proximity settings
-        sendToRecipients(sender, finalComponent, cfg);
+        Component finalComponent = chat.component();
+        deliver(recipients, finalComponent);
         // For console, also provide a plain-text fallback that strips token wrappers
         try {
-            String consolePlain = buildRenderedString(sender, message)
-                    .replaceAll(STRIP_TOKEN_PATTERN.pattern(), "$1");
-            MessageUtils.sendMessage(Bukkit.getConsoleSender(), consolePlain);
+            MessageUtils.sendMessage(Bukkit.getConsoleSender(), chat.consolePlain());
         } catch (Throwable ignored) {
             Bukkit.getConsoleSender().sendMessage(finalComponent);
         }
     }
 
+    /**
+     * Send a chat message to the members of a channel, in the channel's format.
+     *
+     * @param mentioned slots of the mentioned players, or null for no mention effects
+     */
+    public void sendToChannel(Player sender, me.rexsystems.rexChat.service.ChannelManager.Channel channel,
+                              String message, java.util.BitSet mentioned) {
+        java.util.BitSet recipients = plugin.getChannelManager().recipients(channel, sender);
+        playMentionEffects(sender, mentioned, recipients);
+        RenderedChat chat = render(sender, message, null, channel.format(), null);
+        deliver(recipients, MessageUtils.isLegacy() ? chat.legacy() : chat.component());
+        MessageUtils.sendMessage(Bukkit.getConsoleSender(), "[" + channel.id() + "] " + chat.consolePlain());
+    }
+
+    /**
+     * Render a chat line once. The Component, legacy components and console text
+     * are built lazily from the same rendered string.
+     *
+     * @param mentionFilter which mentioned players get highlighted, or null for all
+     */
+    public RenderedChat render(Player sender, String message, java.util.function.Predicate<Player> mentionFilter) {
+        return render(sender, message, mentionFilter, defaultRange(plugin.getConfigManager().getConfig()));
+    }
+
+    /**
+     * Render a chat line for a proximity range.
+     *
+     * @param range the range whose format and indicator to use, or null for global chat
+     */
+    public RenderedChat render(Player sender, String message, java.util.function.Predicate<Player> mentionFilter,
+                               ProximityManager.ChatRange range) {
+        return render(sender, message, mentionFilter, range != null ? range.format() : null, rangeIndicator(range));
+    }
+
+    /**
+     * @param formatOverride format to use instead of the player's group format, or null
+     * @param indicator      text put in front of the line, or null
+     */
+    private RenderedChat render(Player sender, String message, java.util.function.Predicate<Player> mentionFilter,
+                                ChatFormatTemplate formatOverride, String indicator) {
+        // Resolved once and shared by the format and the hover of this line
+        String group = resolveGroupForPlayer(sender);
+        String rendered = buildRenderedString(sender, message, mentionFilter, formatOverride, indicator, group);
+        return new RenderedChat(rendered,
+                r -> buildComponent(sender, message, r, group),
+                r -> buildLegacyComponents(sender, message, r, group),
+                r -> STRIP_TOKEN_PATTERN.matcher(r).replaceAll("$1"));
+    }
+
+    // Legacy path: convert our MiniMessage token wrappers to Bungee components
+    private BaseComponent[] buildLegacyComponents(Player sender, String message, String rendered, String group) {
+        java.util.List<BaseComponent> out = new java.util.ArrayList<>();
+        String s = rendered;
+        // FIXED: use a global, case-insensitive, dot-all pattern to catch every wrapper
+        java.util.regex.Pattern pat = LEGACY_TOKEN_PATTERN;
+        java.util.regex.Matcher m = pat.matcher(s);
+        int pos = 0;
+        boolean hadToken = false;
+        while (m.find()) {
+            hadToken = true;
+            String pre = s.substring(pos, m.start());
+            if (!pre.isEmpty()) {
+                String preLegacy = ColorUtils.translateLegacyColors(pre);
+                BaseComponent[] preComp = TextComponent.fromLegacyText(preLegacy);
+                for (BaseComponent c : preComp)
+                    out.add(c);
+            }
+
+            String hover = m.group(1).replace("''", "'");
+            String cmd = m.group(2).replace("''", "'");
+            String label = m.group(3).replace("''", "'");
+
+            String labelLegacy = ColorUtils.translateLegacyColors(label);
+            BaseComponent[] labelComps = TextComponent.fromLegacyText(labelLegacy);
+            BaseComponent[] hoverComps = TextComponent.fromLegacyText(ColorUtils.translateLegacyColors(hover));
+            for (BaseComponent lc : labelComps) {
+                lc.setHoverEvent(new net.md_5.bungee.api.chat.HoverEvent(
+                        net.md_5.bungee.api.chat.HoverEvent.Action.SHOW_TEXT, hoverComps));
+                lc.setClickEvent(new net.md_5.bungee.api.chat.ClickEvent(
+                        net.md_5.bungee.api.chat.ClickEvent.Action.RUN_COMMAND, cmd));
+                out.add(lc);
+            }
+
+            pos = m.end();
+        }
+        String tail = s.substring(pos);
+        if (!tail.isEmpty()) {
+            String tailLegacy = ColorUtils.translateLegacyColors(tail);
+            BaseComponent[] tailComp = TextComponent.fromLegacyText(tailLegacy);
+            for (BaseComponent c : tailComp)
+                out.add(c);
+        }
+
+        BaseComponent[] base;
+        if (!hadToken) {
+            // No tokens found: apply global hover/click to entire message
+            String legacy = ColorUtils.translateLegacyColors(rendered);
+            base = TextComponent.fromLegacyText(legacy);
+
+            HoverCardCache.Card card = plugin.getHoverCardCache().get(sender, group);
+            BaseComponent[] hoverComp = card != null ? card.legacy(message) : null;
+            for (BaseComponent c : base) {
+                if (hoverComp != null) {
+                    c.setHoverEvent(new net.md_5.bungee.api.chat.HoverEvent(
+                            net.md_5.bungee.api.chat.HoverEvent.Action.SHOW_TEXT, hoverComp));
+                }
+                c.setClickEvent(new net.md_5.bungee.api.chat.ClickEvent(
+                        net.md_5.bungee.api.chat.ClickEvent.Action.SUGGEST_COMMAND,
+                        "/msg " + sender.getName() + " "));
+            }
+        } else {
+            base = out.toArray(new BaseComponent[0]);
+        }
+
+        return base;
+    }
+
     public String buildRenderedString(Player sender, String message) {
+        return buildRenderedString(sender, message, null);
+    }
+
+    /**
+     * Build the rendered chat line.
+     *
+     * @param mentionFilter which mentioned players get highlighted, or null for all
+     */
+    public String buildRenderedString(Player sender, String message, java.util.function.Predicate<Player> mentionFilter) {
+        return buildRenderedString(sender, message, mentionFilter, defaultRange(plugin.getConfigManager().getConfig()));
+    }
+
+    /**
+     * Build the rendered chat line for a proximity range.
+     *
+     * @param range the range whose format and indicator to use, or null for global chat
+     */
+    public String buildRenderedString(Player sender, String message, java.util.function.Predicate<Player> mentionFilter,
+                                      ProximityManager.ChatRange range) {
+        return buildRenderedString(sender, message, mentionFilter, range != null ? range.format() : null,
+                rangeIndicator(range), resolveGroupForPlayer(sender));
+    }
+
+    // Indicator for the range if show-range-indicator is on, else null
+    private String rangeIndicator(ProximityManager.ChatRange range) {
+        if (range == null || !plugin.getConfigManager().getConfig()
+                .getBoolean("chat-management.proximity.show-range-indicator", false))
+            return null;
+        return range.indicator();
+    }
+
+    /**
+     * @param formatOverride format to use instead of the player's group format, or null
+     * @param indicator      text put in front of the line, or null
+     * @param group          the sender's chat-format group, or null
+     */
+    private String buildRenderedString(Player sender, String message, java.util.function.Predicate<Player> mentionFilter,
+                                       ChatFormatTemplate formatOverride, String indicator, String group) {
         FileConfiguration cfg = plugin.getConfigManager().getConfig();
-        String prefix = cfg.getString("messages.prefix", "");
-        String format = getFormatForPlayer(sender, cfg);
-        String chatPrefix = PrefixUtils.getChatPrefix(sender, cfg);
-        format = format.replace("%rc_prefix%", prefix);
+        ChatFormatTemplate format = formatOverride != null ? formatOverride : getFormatForPlayer(sender, group);
 
         // Parse PAPI placeholders in the message if player has permission
         // This is done BEFORE color stripping so that if a placeholder returns color
         // codes,
         // they are subject to the color permission check below.
-        if (sender.hasPermission("rexchat.chat.placeholders")) {
+        if (plugin.getPermissionCache().has(sender, "rexchat.chat.placeholders")) {
             message = me.rexsystems.rexChat.utils.PapiUtils.apply(sender, message);
         }
 
         // Check if player has permission to use MiniMessage tags (click, hover, etc.)
-        if (!sender.hasPermission("rexchat.chat.minimessage")) {
+        if (!plugin.getPermissionCache().has(sender, "rexchat.chat.minimessage")) {
             // No permission: escape MiniMessage tags so they display literally
             message = escapeMiniMessageTags(message);
         }
 
         // Check if player has permission to use colors in chat
-        if (!sender.hasPermission("rexchat.chatcolor")) {
+        if (!plugin.getPermissionCache().has(sender, "rexchat.chatcolor")) {
             // No permission for manual color codes: strip them
             message = ColorUtils.stripColors(message);
         }
@@ -195,54 +294,29 @@ public class MessageFormatter {
         if (colorManager != null && colorManager.isEnabled()) {
             // Resolve the player's chat color format BEFORE applying it, so we can
             // pass it to mention highlighting to restore after each mention.
-            String colorName = colorManager.getPlayerColor(sender);
-            if (colorName != null) {
-                me.rexsystems.rexChat.service.ChatColorManager.ChatColorPreset preset = colorManager.getPreset(colorName);
-                if (preset != null && sender.hasPermission(preset.permission())) {
-                    playerChatColor = preset.format();
-                }
+            me.rexsystems.rexChat.service.ChatColorManager.ChatColorPreset preset = colorManager.getActivePreset(sender);
+            if (preset != null) {
+                playerChatColor = preset.format();
             }
-            message = colorManager.applyPlayerColor(sender, message);
+            message = colorManager.applyPlayerColor(preset, message);
         }
 
         // Apply emojis (configurable) and mention highlight after stripping user colors
         message = EmojiUtils.apply(sender, message, cfg);
-        message = MentionUtils.applyHighlight(sender, message, cfg, playerChatColor);
+        message = MentionUtils.applyHighlight(sender, message, cfg, playerChatColor, mentionFilter);
         // NOTE: [item]/[inventory] tokens are now processed via ItemTokenProcessor
         // AFTER Component creation
         // This is required because MiniMessage can't handle legacy colors inside hover
         // tags
 
-        String world = sender.getWorld().getName();
-        int ping = getPing(sender);
-        double health = Math.max(0, sender.getHealth());
-        double maxHealth = Math.max(0, sender.getMaxHealth());
-        int x = sender.getLocation().getBlockX();
-        int y = sender.getLocation().getBlockY();
-        int z = sender.getLocation().getBlockZ();
-
-        String rendered = format
-                .replace("{player}", sender.getName())
-                .replace("{name}", sender.getName())
-                .replace("{display_name}", sender.getDisplayName())
-                .replace("{message}", message)
-                .replace("{world}", world)
-                .replace("{health}", String.valueOf((int) Math.round(health)))
-                .replace("{max_health}", String.valueOf((int) Math.round(maxHealth)))
-                .replace("{x}", String.valueOf(x))
-                .replace("{y}", String.valueOf(y))
-                .replace("{z}", String.valueOf(z))
-                .replace("{ping}", String.valueOf(ping))
-                .replace("{prefix}", chatPrefix)
-                .replace("%luckperms_prefix%", chatPrefix);
-
-        rendered = PapiUtils.apply(sender, rendered);
+        // Fill the compiled format in one pass; only placeholders present in the
+        // format are evaluated (no location/health/ping lookups otherwise)
+        // PlaceholderAPI only sees the format's own text (static ones were filled on
+        // reload, per-session ones come from the cache); the message was parsed above
+        String rendered = format.render(new SenderPlaceholders(sender, message, plugin.getPrefixManager()));
 
         // Add proximity range indicator if enabled
-        boolean proximityEnabled = cfg.getBoolean("chat-management.proximity.enabled", false);
-        boolean showIndicator = cfg.getBoolean("chat-management.proximity.show-range-indicator", false);
-        if (proximityEnabled && showIndicator) {
-            String indicator = cfg.getString("chat-management.proximity.range-indicator", "&7[Local] ");
+        if (indicator != null) {
             rendered = indicator + rendered;
         }
 
@@ -250,8 +324,20 @@ public class MessageFormatter {
     }
 
     public Component buildFormattedComponent(Player sender, String message) {
-        FileConfiguration cfg = plugin.getConfigManager().getConfig();
-        String rendered = buildRenderedString(sender, message);
+        return buildFormattedComponent(sender, message, null);
+    }
+
+    /**
+     * Build the formatted chat Component.
+     *
+     * @param mentionFilter which mentioned players get highlighted, or null for all
+     */
+    public Component buildFormattedComponent(Player sender, String message,
+            java.util.function.Predicate<Player> mentionFilter) {
+        return render(sender, message, mentionFilter).component();
+    }
+
+    private Component buildComponent(Player sender, String message, String rendered, String group) {
         Component component = ColorUtils.parseComponent(rendered);
 
         // If message contains preview token wrappers, do NOT apply global hover/click
@@ -263,39 +349,10 @@ public class MessageFormatter {
         } catch (Throwable ignored) {
         }
 
-        String prefix = cfg.getString("messages.prefix", "");
-        String world = sender.getWorld().getName();
-        int ping = getPing(sender);
-        double health = Math.max(0, sender.getHealth());
-        double maxHealth = Math.max(0, sender.getMaxHealth());
-        int x = sender.getLocation().getBlockX();
-        int y = sender.getLocation().getBlockY();
-        int z = sender.getLocation().getBlockZ();
-        String chatPrefix = PrefixUtils.getChatPrefix(sender, cfg);
-
-        if (!hasPreviewWrappers && isHoverEnabled(sender, cfg)) {
-            java.util.List<String> lines = getHoverLines(sender, cfg);
-            if (!lines.isEmpty()) {
-                String hoverJoined = String.join("\n", lines)
-                        .replace("%rc_prefix%", prefix)
-                        .replace("{prefix}", chatPrefix)
-                        .replace("{player}", sender.getName())
-                        .replace("{name}", sender.getName())
-                        .replace("{display_name}", sender.getDisplayName())
-                        .replace("{message}", message)
-                        .replace("{world}", world)
-                        .replace("{health}", String.valueOf((int) Math.round(health)))
-                        .replace("{max_health}", String.valueOf((int) Math.round(maxHealth)))
-                        .replace("{x}", String.valueOf(x))
-                        .replace("{y}", String.valueOf(y))
-                        .replace("{z}", String.valueOf(z))
-                        .replace("{ping}", String.valueOf(ping));
-
-                hoverJoined = PapiUtils.apply(sender, hoverJoined);
-                // Reset formatting at the start of each line to prevent color/style bleeding
-                hoverJoined = hoverJoined.replace("\n", "\n<reset>");
-                Component hover = ColorUtils.parseComponent(hoverJoined);
-                component = component.hoverEvent(HoverEvent.showText(hover));
+        if (!hasPreviewWrappers) {
+            HoverCardCache.Card card = plugin.getHoverCardCache().get(sender, group);
+            if (card != null) {
+                component = component.hoverEvent(HoverEvent.showText(card.component(message)));
             }
         }
 
@@ -321,32 +378,11 @@ public class MessageFormatter {
     // Decorate only the player's display name (hover + click), to keep message
     // Component intact for signed chat
     public Component decorateDisplayName(Player sender, Component displayName) {
-        FileConfiguration cfg = plugin.getConfigManager().getConfig();
         Component decorated = displayName;
 
-        if (isHoverEnabled(sender, cfg)) {
-            java.util.List<String> lines = getHoverLines(sender, cfg);
-            if (!lines.isEmpty()) {
-                String prefix = cfg.getString("messages.prefix", "");
-                String chatPrefix = PrefixUtils.getChatPrefix(sender, cfg);
-                String hoverJoined = String.join("\n", lines)
-                        .replace("%rc_prefix%", prefix)
-                        .replace("{prefix}", chatPrefix)
-                        .replace("{player}", sender.getName())
-                        .replace("{display_name}", sender.getDisplayName())
-                        .replace("{world}", sender.getWorld().getName())
-                        .replace("{health}", String.valueOf((int) Math.round(sender.getHealth())))
-                        .replace("{max_health}", String.valueOf((int) Math.round(sender.getMaxHealth())))
-                        .replace("{x}", String.valueOf(sender.getLocation().getBlockX()))
-                        .replace("{y}", String.valueOf(sender.getLocation().getBlockY()))
-                        .replace("{z}", String.valueOf(sender.getLocation().getBlockZ()))
-                        .replace("{ping}", String.valueOf(getPing(sender)));
-                hoverJoined = PapiUtils.apply(sender, hoverJoined);
-                // Reset formatting at the start of each line to prevent color/style bleeding
-                hoverJoined = hoverJoined.replace("\n", "\n<reset>");
-                Component hover = ColorUtils.parseComponent(hoverJoined);
-                decorated = decorated.hoverEvent(HoverEvent.showText(hover));
-            }
+        HoverCardCache.Card card = plugin.getHoverCardCache().get(sender, resolveGroupForPlayer(sender));
+        if (card != null) {
+            decorated = decorated.hoverEvent(HoverEvent.showText(card.component("")));
         }
 
         decorated = decorated.clickEvent(ClickEvent.suggestCommand("/msg " + sender.getName() + " "));
@@ -354,190 +390,86 @@ public class MessageFormatter {
     }
 
     // --- Group-based formatting helpers ---
-    private String getFormatForPlayer(Player sender, FileConfiguration cfg) {
-        String defaultFormat = cfg.getString("chat-format.format", "%rc_prefix%&7{player}: &f{message}");
-        String group = resolveGroupForPlayer(sender, cfg);
+    private ChatFormatTemplate getFormatForPlayer(Player sender, String group) {
+        me.rexsystems.rexChat.service.ChatFormatManager formats = plugin.getChatFormatManager();
         if (group != null) {
-            String path = "chat-format.groups." + group + ".format";
-            if (cfg.isString(path)) {
-                String fmt = cfg.getString(path);
-                if (fmt != null && !fmt.isEmpty()) {
-                    plugin.getLogUtils().debug("Using format for group '" + group + "' for player " + sender.getName());
-                    return fmt;
-                }
-            } else {
-                plugin.getLogUtils().debug("Group '" + group + "' found but no format at path: " + path);
+            ChatFormatTemplate fmt = formats.getGroupFormat(group);
+            if (fmt != null) {
+                plugin.getLogUtils().debug("Using format for group '" + group + "' for player " + sender.getName());
+                return fmt;
             }
+            plugin.getLogUtils().debug("Group '" + group + "' found but no format at path: chat-format.groups."
+                    + group + ".format");
         } else {
             plugin.getLogUtils()
                     .debug("No matching group found for player " + sender.getName() + ", using default format");
         }
 
         // Also allow first matching group by permission if defined
-        // IMPORTANT: Get fresh config section to avoid cache issues after reload
-        if (cfg.isConfigurationSection("chat-format.groups")) {
-            org.bukkit.configuration.ConfigurationSection groupsSection = cfg
-                    .getConfigurationSection("chat-format.groups");
-            if (groupsSection != null) {
-                for (String key : groupsSection.getKeys(false)) {
-                    String perm = cfg.getString("chat-format.groups." + key + ".permission", null);
-                    if (perm != null && !perm.isEmpty() && sender.hasPermission(perm)) {
-                        String fmt = cfg.getString("chat-format.groups." + key + ".format");
-                        if (fmt != null && !fmt.isEmpty()) {
-                            plugin.getLogUtils().debug("Using format for group '" + key
-                                    + "' (matched by permission) for player " + sender.getName());
-                            return fmt;
-                        }
-                    }
-                }
+        for (me.rexsystems.rexChat.service.ChatFormatManager.GroupFormat gf : formats.getGroupFormats().values()) {
+            String perm = gf.permission();
+            if (perm != null && !perm.isEmpty() && plugin.getPermissionCache().has(sender, perm)) {
+                plugin.getLogUtils().debug("Using format for group '" + gf.group()
+                        + "' (matched by permission) for player " + sender.getName());
+                return gf.template();
             }
         }
 
-        return defaultFormat;
+        return formats.getDefaultFormat();
     }
 
-    private boolean isHoverEnabled(Player sender, FileConfiguration cfg) {
-        String group = resolveGroupForPlayer(sender, cfg);
-        if (group != null) {
-            String path = "chat-format.groups." + group + ".hover.enabled";
-            if (cfg.isSet(path))
-                return cfg.getBoolean(path, true);
-        }
-        return cfg.getBoolean("chat-format.player.hover.enabled", true);
-    }
-
-    private java.util.List<String> getHoverLines(Player sender, FileConfiguration cfg) {
-        String group = resolveGroupForPlayer(sender, cfg);
-        if (group != null) {
-            String path = "chat-format.groups." + group + ".hover.lines";
-            if (cfg.isList(path))
-                return cfg.getStringList(path);
-        }
-        return cfg.getStringList("chat-format.player.hover.lines");
-    }
-
-    private String resolveGroupForPlayer(Player sender, FileConfiguration cfg) {
-        // Resolve primary group without PAPI: prefer LuckPerms, then Vault, then PAPI
-        // fallback
-        String primary = null;
-
-        // Debug: log available groups in config (only once per config load to avoid
-        // spam)
-        // Removed excessive logging - will log only if group matching fails
-
-        // LuckPerms v5 via reflection
-        try {
-            Class<?> providerClass = Class.forName("net.luckperms.api.LuckPermsProvider");
-            Object luckPerms = providerClass.getMethod("get").invoke(null);
-            // Try player adapter path to avoid missing user cache
-            Object adapter = luckPerms.getClass().getMethod("getPlayerAdapter", Class.class)
-                    .invoke(luckPerms, org.bukkit.entity.Player.class);
-            Object meta = adapter.getClass().getMethod("getMetaData", org.bukkit.entity.Player.class)
-                    .invoke(adapter, sender);
-            Object pg = meta.getClass().getMethod("getPrimaryGroup").invoke(meta);
-            if (pg instanceof String) {
-                primary = (String) pg;
-            }
-            // Fallback to user manager if adapter didn't yield
-            if (primary == null) {
-                Object userManager = luckPerms.getClass().getMethod("getUserManager").invoke(luckPerms);
-                Object user = userManager.getClass().getMethod("getUser", java.util.UUID.class)
-                        .invoke(userManager, sender.getUniqueId());
-                if (user != null) {
-                    Object pg2 = user.getClass().getMethod("getPrimaryGroup").invoke(user);
-                    if (pg2 instanceof String)
-                        primary = (String) pg2;
-                }
-            }
-        } catch (Throwable ignored) {
-        }
-
-        // Vault Permission provider via reflection
-        if (primary == null) {
-            try {
-                Class<?> permClass = Class.forName("net.milkbowl.vault.permission.Permission");
-                Object registration = org.bukkit.Bukkit.getServicesManager().getRegistration(permClass);
-                if (registration != null) {
-                    Object provider = registration.getClass().getMethod("getProvider").invoke(registration);
-                    try {
-                        Object res = provider.getClass().getMethod("getPrimaryGroup", org.bukkit.entity.Player.class)
-                                .invoke(provider, sender);
-                        if (res instanceof String)
-                            primary = (String) res;
-                    } catch (NoSuchMethodException nsme) {
-                        // Try (String world, String player) signature
-                        Object res = provider.getClass().getMethod("getPrimaryGroup", String.class, String.class)
-                                .invoke(provider, sender.getWorld().getName(), sender.getName());
-                        if (res instanceof String)
-                            primary = (String) res;
-                    }
-                }
-            } catch (Throwable ignored) {
-            }
+    /**
+     * Resolves chat format placeholders for one message. Location is looked up
+     * at most once, and only if the format uses it.
+     */
+    static final class SenderPlaceholders implements ChatFormatTemplate.Resolver {
+        private final Player sender;
+        private final String message;
+        private final me.rexsystems.rexChat.service.PrefixManager prefixes;
+        private org.bukkit.Location location;
+
+        SenderPlaceholders(Player sender, String message, me.rexsystems.rexChat.service.PrefixManager prefixes) {
+            this.sender = sender;
+            this.message = message;
+            this.prefixes = prefixes;
         }
 
-        // PAPI fallback if available
-        if (primary == null) {
-            try {
-                String lp = PapiUtils.apply(sender, "%luckperms_primary_group%");
-                if (lp != null && !"%luckperms_primary_group%".equals(lp))
-                    primary = lp;
-            } catch (Throwable ignored) {
-            }
-            if (primary == null) {
-                try {
-                    String vault = PapiUtils.apply(sender, "%vault_primary_group%");
-                    if (vault != null && !"%vault_primary_group%".equals(vault))
-                        primary = vault;
-                } catch (Throwable ignored) {
-                }
-            }
+        @Override
+        public String resolve(ChatFormatTemplate.Placeholder placeholder) {
+            return switch (placeholder) {
+                case PLAYER, NAME -> sender.getName();
+                case DISPLAY_NAME -> sender.getDisplayName();
+                case MESSAGE -> message;
+                case WORLD -> sender.getWorld().getName();
+                case HEALTH -> String.valueOf((int) Math.round(Math.max(0, sender.getHealth())));
+                case MAX_HEALTH -> String.valueOf((int) Math.round(Math.max(0, sender.getMaxHealth())));
+                case X -> String.valueOf(location().getBlockX());
+                case Y -> String.valueOf(location().getBlockY());
+                case Z -> String.valueOf(location().getBlockZ());
+                case PING -> String.valueOf(getPing(sender));
+                case PREFIX, LUCKPERMS_PREFIX -> PapiUtils.apply(sender, prefixes.getPrefix(sender));
+                case SUFFIX, LUCKPERMS_SUFFIX -> PapiUtils.apply(sender, prefixes.getSuffix(sender));
+            };
         }
 
-        // If primary group is present and matches a key (case-insensitive), use it
-        // IMPORTANT: Get fresh config section to avoid cache issues after reload
-        if (primary != null && cfg.isConfigurationSection("chat-format.groups")) {
-            String normalized = primary.toLowerCase();
-            org.bukkit.configuration.ConfigurationSection groupsSection = cfg
-                    .getConfigurationSection("chat-format.groups");
-            if (groupsSection != null) {
-                plugin.getLogUtils().debug("Player " + sender.getName() + " has primary group: " + primary
-                        + " (normalized: " + normalized + ")");
-                for (String key : groupsSection.getKeys(false)) {
-                    if (key != null && key.equalsIgnoreCase(normalized)) {
-                        plugin.getLogUtils().debug("Matched group '" + key + "' for player " + sender.getName());
-                        return key;
-                    }
-                }
-                plugin.getLogUtils().debug("Primary group '" + primary + "' not found in config groups. Available: "
-                        + String.join(", ", groupsSection.getKeys(false)));
-            }
-        } else if (primary == null) {
-            plugin.getLogUtils().debug("Could not resolve primary group for player " + sender.getName());
+        @Override
+        public String resolveExternal(String text) {
+            return PapiUtils.apply(sender, text);
         }
 
-        // Otherwise, only match via explicit permission from config
-        // IMPORTANT: Get fresh config section to avoid cache issues after reload
-        if (cfg.isConfigurationSection("chat-format.groups")) {
-            org.bukkit.configuration.ConfigurationSection groupsSection = cfg
-                    .getConfigurationSection("chat-format.groups");
-            if (groupsSection != null) {
-                for (String key : groupsSection.getKeys(false)) {
-                    String explicitPerm = cfg.getString("chat-format.groups." + key + ".permission", null);
-                    if (explicitPerm != null && !explicitPerm.isEmpty() && sender.hasPermission(explicitPerm)) {
-                        plugin.getLogUtils().debug("Matched group '" + key + "' for player " + sender.getName()
-                                + " via permission: " + explicitPerm);
-                        return key;
-                    }
-                }
-            }
+        private org.bukkit.Location location() {
+            if (location == null)
+                location = sender.getLocation();
+            return location;
         }
+    }
 
-        // No match; use default format
-        return null;
+    // Cached per player; see GroupResolver
+    private String resolveGroupForPlayer(Player sender) {
+        return plugin.getGroupResolver().resolve(sender);
     }
 
-    private int getPing(Player player) {
+    static int getPing(Player player) {
         try {
             return player.getPing();
         } catch (Throwable ignored) {
@@ -611,72 +543,58 @@ public class MessageFormatter {
         return result.toString();
     }
 
+    // Range used when the caller doesn't pick one: the default range while proximity chat is on
+    private ProximityManager.ChatRange defaultRange(FileConfiguration cfg) {
+        if (!cfg.getBoolean("chat-management.proximity.enabled", false) || plugin.getProximityManager() == null)
+            return null;
+        return plugin.getProximityManager().getDefaultRange();
+    }
+
     /**
-     * Send message to recipients based on proximity settings.
-     * Supports both legacy (BaseComponent[]) and modern (Component) formats.
+     * Slots of everyone for global chat; otherwise the sender, players within the range's
+     * radius and players with the bypass permission. Tells the sender if nobody is in range.
+     *
+     * @param range the selected range, or null for global chat
      */
-    private void sendToRecipients(Player sender, Object message, FileConfiguration cfg) {
-        boolean proximityEnabled = cfg.getBoolean("chat-management.proximity.enabled", false);
-        double radius = cfg.getDouble("chat-management.proximity.radius", 100.0);
-        String bypassPerm = cfg.getString("chat-management.proximity.bypass-permission", "rexchat.proximity.bypass");
-        String noRecipientsMsg = cfg.getString("chat-management.proximity.no-recipients-message", 
-            "%rc_prefix%&7No one is nearby to hear you.");
-
-        java.util.List<Player> recipients = new java.util.ArrayList<>();
-
-        // Check if sender has global chat toggle enabled
-        boolean senderHasGlobalToggle = plugin.getDataManager().getData()
-                .getBoolean("proximity-bypass." + sender.getUniqueId().toString(), false);
-
-        if (!proximityEnabled || radius <= 0 || senderHasGlobalToggle || sender.hasPermission(bypassPerm)) {
-            // Global chat - send to everyone
-            recipients.addAll(Bukkit.getOnlinePlayers());
-        } else {
-            // Proximity chat - only send to nearby players
-            org.bukkit.Location senderLoc = sender.getLocation();
-            double radiusSquared = radius * radius;
-
-            for (Player p : Bukkit.getOnlinePlayers()) {
-                // Always include sender
-                if (p.equals(sender)) {
-                    recipients.add(p);
-                    continue;
-                }
-
-                // Players with bypass permission see all messages
-                if (p.hasPermission(bypassPerm)) {
-                    recipients.add(p);
-                    continue;
-                }
-
-                // Check if player is in same world and within radius
-                if (p.getWorld().equals(sender.getWorld())) {
-                    double distSquared = p.getLocation().distanceSquared(senderLoc);
-                    if (distSquared <= radiusSquared) {
-                        recipients.add(p);
-                    }
-                }
-            }
-
-            // Notify sender if no one heard them (excluding themselves)
-            if (recipients.size() <= 1) {
-                String prefix = cfg.getString("messages.prefix", "");
-                String msg = noRecipientsMsg.replace("%rc_prefix%", prefix);
-                MessageUtils.sendMessage(sender, msg);
-            }
+    private java.util.BitSet findRecipients(Player sender, ProximityManager.ChatRange range, FileConfiguration cfg) {
+        if (range == null || range.radius() <= 0)
+            return plugin.getPlayerSlots().occupied();
+
+        // Only the chunks around the sender are looked at
+        java.util.BitSet recipients = plugin.getProximityManager().recipients(sender, range.radius());
+        if (recipients.cardinality() <= 1) {
+            String prefix = cfg.getString("messages.prefix", "");
+            String msg = cfg.getString("chat-management.proximity.no-recipients-message",
+                    "%rc_prefix%&7No one is nearby to hear you.").replace("%rc_prefix%", prefix);
+            MessageUtils.sendCachedMessage(sender, msg);
         }
+        return recipients;
+    }
 
-        // Send message to all recipients
+    /**
+     * Mention sounds and notifications go only to mentioned players who receive the line.
+     */
+    private void playMentionEffects(Player sender, java.util.BitSet mentioned, java.util.BitSet recipients) {
+        if (mentioned == null || mentioned.isEmpty())
+            return;
+        java.util.BitSet targets = (java.util.BitSet) mentioned.clone();
+        targets.and(recipients);
+        MentionUtils.playMentionEffects(plugin, sender, targets);
+    }
+
+    /**
+     * Send the chat line to the players in the recipient slots.
+     * Supports both legacy (BaseComponent[]) and modern (Component) formats.
+     */
+    private void deliver(java.util.BitSet recipients, Object message) {
+        SlotRegistry<Player> slots = plugin.getPlayerSlots();
         if (message instanceof BaseComponent[]) {
             BaseComponent[] components = (BaseComponent[]) message;
-            for (Player p : recipients) {
-                SchedulerUtils.runForPlayer(plugin, p, () -> p.spigot().sendMessage(components));
-            }
+            slots.forEach(recipients,
+                    p -> SchedulerUtils.runForPlayer(plugin, p, () -> p.spigot().sendMessage(components)));
         } else if (message instanceof Component) {
             Component component = (Component) message;
-            for (Player p : recipients) {
-                SchedulerUtils.runForPlayer(plugin, p, () -> p.sendMessage(component));
-            }
+            slots.forEach(recipients, p -> SchedulerUtils.runForPlayer(plugin, p, () -> p.sendMessage(component)));
         }
     }
 
@@ -19,7 +19,7 @@ public class MessageUtils {
     
     public static void sendMessage(CommandSender sender, String message) {
         // Parse PAPI placeholders if sender is a player
-        if (sender instanceof org.bukkit.entity.Player) {
+        if (message.indexOf('%') >= 0 && sender instanceof org.bukkit.entity.Player) {
             message = PapiUtils.apply((org.bukkit.entity.Player) sender, message);
         }
         
@@ -31,6 +31,20 @@ public class MessageUtils {
         }
     }
 
+    /**
+     * Same as {@link #sendMessage}, but reuses the parsed Component. Only for
+     * text that repeats as is, such as config messages and broadcasts; one-off
+     * text (chat lines, player names) would just push those out of the cache.
+     */
+    public static void sendCachedMessage(CommandSender sender, String message) {
+        // With placeholders the text differs per receiver
+        if (IS_LEGACY || message.indexOf('%') >= 0) {
+            sendMessage(sender, message);
+            return;
+        }
+        sender.sendMessage(ColorUtils.parseCached(message));
+    }
+
     public static boolean isLegacy() {
         return IS_LEGACY;
     }
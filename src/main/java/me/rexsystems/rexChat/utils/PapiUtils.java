@@ -1,43 +1,170 @@
 package me.rexsystems.rexChat.utils;
 
+import me.rexsystems.rexChat.RexChat;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
 
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
+/**
+ * PlaceholderAPI bridge. PlaceholderAPI.setPlaceholders is bound once as a
+ * MethodHandle, text without a % skips it entirely, and placeholders listed
+ * under placeholders.cache are reused per player (see {@link PlaceholderCache}).
+ *
+ * Chat format placeholders fall in three groups: static ones (placeholders.static)
+ * are filled into the compiled formats on reload, session ones (cached with -1)
+ * once per player, and everything else on each message.
+ */
 public class PapiUtils {
     private static volatile boolean checked = false;
-    private static volatile boolean available = false;
-    private static Method papiMethod;
+    // null when PlaceholderAPI is not installed
+    private static volatile MethodHandle setPlaceholders;
+    private static volatile PlaceholderCache cache = PlaceholderCache.compile(Map.of(), System::currentTimeMillis);
+    // Lower-case names of placeholders that never change while the server runs
+    private static volatile Set<String> staticNames = Set.of();
+
+    /**
+     * Bind PlaceholderAPI and read placeholders.cache. Called on enable and reload.
+     */
+    public static void load(RexChat plugin) {
+        FileConfiguration cfg = plugin.getConfigManager().getConfig();
+        SlotRegistry<Player> slots = plugin.getPlayerSlots();
+        Map<String, Double> ttls = new HashMap<>();
+        ConfigurationSection section = cfg.getConfigurationSection("placeholders.cache");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                ttls.put(key, section.getDouble(key));
+            }
+        }
+        // Only players holding a slot are cached: they are forgotten again on quit
+        cache = PlaceholderCache.compile(ttls, System::currentTimeMillis, uuid -> slots.slot(uuid) >= 0);
+        Set<String> names = new HashSet<>();
+        for (String name : cfg.getStringList("placeholders.static")) {
+            names.add(name.toLowerCase());
+        }
+        staticNames = Set.copyOf(names);
+        checked = false;
+        ensureChecked();
+    }
 
     private static void ensureChecked() {
         if (checked) return;
         checked = true;
+        MethodHandle handle = null;
         try {
-            Class<?> clazz = Class.forName("me.clip.placeholderapi.PlaceholderAPI");
-            papiMethod = clazz.getMethod("setPlaceholders", OfflinePlayer.class, String.class);
-            available = true;
+            if (Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null) {
+                Class<?> clazz = Class.forName("me.clip.placeholderapi.PlaceholderAPI");
+                handle = MethodHandles.publicLookup()
+                        .findStatic(clazz, "setPlaceholders",
+                                MethodType.methodType(String.class, OfflinePlayer.class, String.class))
+                        .asType(MethodType.methodType(String.class, Player.class, String.class));
+            }
         } catch (Throwable ignored) {
-            available = false;
         }
+        setPlaceholders = handle;
     }
 
     public static boolean isAvailable() {
         ensureChecked();
-        return available && Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null;
+        return setPlaceholders != null;
     }
 
     public static String apply(Player player, String text) {
-        if (text == null) return null;
+        if (text == null || text.indexOf('%') < 0) return text;
         ensureChecked();
-        if (!isAvailable()) return text;
+        MethodHandle handle = setPlaceholders;
+        if (handle == null) return text;
+        return cache.apply(player != null ? player.getUniqueId() : null, text, part -> {
+            try {
+                return (String) handle.invokeExact(player, part);
+            } catch (Throwable ignored) {
+                return part;
+            }
+        });
+    }
+
+    /**
+     * Fill the static placeholders of a compiled chat format. Placeholders whose
+     * expansion isn't loaded yet stay in the format and are resolved per message.
+     */
+    public static ChatFormatTemplate expandStatic(ChatFormatTemplate template) {
+        ensureChecked();
+        MethodHandle handle = setPlaceholders;
+        if (handle == null || staticNames.isEmpty())
+            return template;
+        return template.expand(PapiUtils::isStatic, token -> {
+            try {
+                return (String) handle.invokeExact((Player) null, token);
+            } catch (Throwable ignored) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Run an action each time PlaceholderAPI has (re)loaded its expansions. File
+     * expansions load after the server started, so static placeholders filled in
+     * on enable would still be missing. Uses reflection like the rest of this class.
+     *
+     * @return true if PlaceholderAPI is present and the listener was registered
+     */
+    public static boolean hookExpansionsLoaded(RexChat plugin, Runnable action) {
+        if (!isAvailable())
+            return false;
         try {
-            return (String) papiMethod.invoke(null, player, text);
-        } catch (Throwable ignored) {
-            return text;
+            Class<? extends Event> eventClass = Class.forName("me.clip.placeholderapi.events.ExpansionsLoadedEvent")
+                    .asSubclass(Event.class);
+            plugin.getServer().getPluginManager().registerEvent(eventClass, new Listener() {
+            }, EventPriority.MONITOR, (listener, event) -> {
+                if (eventClass.isInstance(event))
+                    action.run();
+            }, plugin);
+            return true;
+        } catch (Throwable t) {
+            plugin.getLogUtils().debug("PlaceholderAPI expansion hook unavailable: " + t.getMessage());
+            return false;
         }
     }
-}
 
+    public static boolean isStatic(String name) {
+        return staticNames.contains(name.toLowerCase());
+    }
+
+    /**
+     * True if a placeholder is cached until the player quits.
+     */
+    public static boolean isSession(String name) {
+        return cache.ttlFor(name) == PlaceholderCache.FOREVER;
+    }
+
+    /**
+     * Drop a player's cached placeholder values, or everyone's when uuid is null.
+     */
+    public static void invalidate(UUID uuid) {
+        if (uuid != null) {
+            cache.forget(uuid);
+        } else {
+            cache.clear();
+        }
+    }
 
+    /**
+     * Number of cached placeholder values, for /rexchat stats.
+     */
+    public static int cacheSize() {
+        return cache.size();
+    }
+}
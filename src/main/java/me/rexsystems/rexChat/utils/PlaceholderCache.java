@@ -0,0 +1,165 @@
+package me.rexsystems.rexChat.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reuses PlaceholderAPI results per player and placeholder.
+ *
+ * Rules map a placeholder name (without the % signs) to how long its value is
+ * kept; a name ending in * matches every placeholder starting with the rest.
+ * Placeholders without a rule are resolved on every call, as before. A text
+ * is split at the cached placeholders, so the rest of it is still resolved
+ * in one call and cached values are never parsed again.
+ */
+public final class PlaceholderCache {
+    /** TTL meaning the value is kept until the player is forgotten. */
+    public static final long FOREVER = -1;
+    private static final long NOT_CACHED = -2;
+    private static final Pattern TOKEN = Pattern.compile("%([^%\\s]+)%");
+
+    private final Map<String, Long> exact;
+    // Prefix rules, longest prefix first
+    private final List<Map.Entry<String, Long>> prefixes;
+    private final LongSupplier clock;
+    // Players whose values may be stored; others are resolved without caching
+    private final Predicate<UUID> online;
+    private final Map<UUID, Map<String, Entry>> values = new ConcurrentHashMap<>();
+
+    private record Entry(String value, long expiresAt) {
+    }
+
+    private PlaceholderCache(Map<String, Long> exact, List<Map.Entry<String, Long>> prefixes, LongSupplier clock,
+                             Predicate<UUID> online) {
+        this.exact = exact;
+        this.prefixes = prefixes;
+        this.clock = clock;
+        this.online = online;
+    }
+
+    /**
+     * @param ttlSeconds seconds per placeholder name or prefix*, negative for forever
+     * @param clock      current time in milliseconds
+     */
+    public static PlaceholderCache compile(Map<String, Double> ttlSeconds, LongSupplier clock) {
+        return compile(ttlSeconds, clock, player -> true);
+    }
+
+    /**
+     * @param online whether a player is still online. Text resolved for anyone
+     *               else (e.g. a leave message after {@link #forget}) is not
+     *               cached, or the values would never be dropped.
+     */
+    public static PlaceholderCache compile(Map<String, Double> ttlSeconds, LongSupplier clock,
+                                           Predicate<UUID> online) {
+        Map<String, Long> exact = new HashMap<>();
+        List<Map.Entry<String, Long>> prefixes = new ArrayList<>();
+        for (Map.Entry<String, Double> rule : ttlSeconds.entrySet()) {
+            String name = rule.getKey().toLowerCase();
+            long ttl = rule.getValue() < 0 ? FOREVER : (long) (rule.getValue() * 1000);
+            if (ttl == 0 || name.isEmpty())
+                continue;
+            if (name.endsWith("*")) {
+                prefixes.add(Map.entry(name.substring(0, name.length() - 1), ttl));
+            } else {
+                exact.put(name, ttl);
+            }
+        }
+        prefixes.sort((a, b) -> b.getKey().length() - a.getKey().length());
+        return new PlaceholderCache(exact, List.copyOf(prefixes), clock, online);
+    }
+
+    public boolean hasRules() {
+        return !exact.isEmpty() || !prefixes.isEmpty();
+    }
+
+    /**
+     * TTL in milliseconds for a placeholder name, {@link #FOREVER}, or a negative
+     * value below that if it is not cached.
+     */
+    long ttlFor(String name) {
+        String key = name.toLowerCase();
+        Long ttl = exact.get(key);
+        if (ttl != null)
+            return ttl;
+        for (Map.Entry<String, Long> prefix : prefixes) {
+            if (key.startsWith(prefix.getKey()))
+                return prefix.getValue();
+        }
+        return NOT_CACHED;
+    }
+
+    /**
+     * Replace the placeholders in text.
+     *
+     * @param resolver resolves all placeholders in the text it is given
+     */
+    public String apply(UUID player, String text, UnaryOperator<String> resolver) {
+        if (player == null || !hasRules() || !online.test(player))
+            return resolver.apply(text);
+
+        StringBuilder out = null;
+        int last = 0;
+        Matcher m = TOKEN.matcher(text);
+        while (m.find()) {
+            long ttl = ttlFor(m.group(1));
+            if (ttl == NOT_CACHED)
+                continue;
+            if (out == null)
+                out = new StringBuilder(text.length() + 16);
+            out.append(resolveRest(text.substring(last, m.start()), resolver));
+            out.append(cached(player, m.group(), ttl, resolver));
+            last = m.end();
+        }
+        if (out == null)
+            return resolver.apply(text);
+        out.append(resolveRest(text.substring(last), resolver));
+        return out.toString();
+    }
+
+    private static String resolveRest(String part, UnaryOperator<String> resolver) {
+        return part.indexOf('%') < 0 ? part : resolver.apply(part);
+    }
+
+    private String cached(UUID player, String token, long ttl, UnaryOperator<String> resolver) {
+        Map<String, Entry> playerValues = values.computeIfAbsent(player, k -> new ConcurrentHashMap<>());
+        long now = clock.getAsLong();
+        Entry entry = playerValues.get(token);
+        if (entry != null && (entry.expiresAt() == FOREVER || now < entry.expiresAt()))
+            return entry.value();
+        String value = resolver.apply(token);
+        playerValues.put(token, new Entry(value, ttl == FOREVER ? FOREVER : now + ttl));
+        return value;
+    }
+
+    /**
+     * Drop a player's cached values (on quit).
+     */
+    public void forget(UUID player) {
+        values.remove(player);
+    }
+
+    public void clear() {
+        values.clear();
+    }
+
+    /**
+     * Number of cached values over all players.
+     */
+    public int size() {
+        int size = 0;
+        for (Map<String, Entry> playerValues : values.values()) {
+            size += playerValues.size();
+        }
+        return size;
+    }
+}
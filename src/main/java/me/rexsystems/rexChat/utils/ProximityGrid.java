@@ -0,0 +1,144 @@
+package me.rexsystems.rexChat.utils;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Spatial index of entities by world and chunk-sized cell (16x16 blocks, x/z only).
+ * Movers update it only when they cross a cell border; a radius query visits only
+ * the cells overlapping the radius, so its cost follows the number of nearby
+ * entities instead of the number online. Callers do the exact distance check.
+ *
+ * Safe for concurrent updates (one thread per entity) and queries from any thread.
+ */
+public final class ProximityGrid<T> {
+    private static final int CELL_SHIFT = 4;
+
+    private record Cell(UUID world, int x, int z) {
+        boolean is(UUID world, int x, int z) {
+            return this.x == x && this.z == z && this.world.equals(world);
+        }
+    }
+
+    private static final class Entry<T> {
+        final T value;
+        // Cell the entry counts for; during a move it is briefly in two cell sets
+        volatile Cell cell;
+
+        Entry(T value) {
+            this.value = value;
+        }
+    }
+
+    private final Map<UUID, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final Map<UUID, Map<Long, Set<Entry<T>>>> worlds = new ConcurrentHashMap<>();
+
+    /**
+     * Place an entity at the given block coordinates.
+     *
+     * @return true if it moved to a different cell (or was not indexed yet)
+     */
+    public boolean update(UUID id, T value, UUID world, double x, double z) {
+        int cx = (int) Math.floor(x) >> CELL_SHIFT;
+        int cz = (int) Math.floor(z) >> CELL_SHIFT;
+        Entry<T> entry = entries.computeIfAbsent(id, k -> new Entry<>(value));
+        synchronized (entry) {
+            Cell old = entry.cell;
+            if (old != null && old.is(world, cx, cz))
+                return false;
+            Cell now = new Cell(world, cx, cz);
+            // Add to the new cell before leaving the old one so queries never miss the entry
+            worlds.computeIfAbsent(world, w -> new ConcurrentHashMap<>())
+                    .compute(key(cx, cz), (k, set) -> {
+                        if (set == null)
+                            set = ConcurrentHashMap.newKeySet();
+                        set.add(entry);
+                        return set;
+                    });
+            entry.cell = now;
+            if (old != null)
+                leave(old, entry);
+            return true;
+        }
+    }
+
+    public void remove(UUID id) {
+        Entry<T> entry = entries.remove(id);
+        if (entry == null)
+            return;
+        synchronized (entry) {
+            Cell old = entry.cell;
+            entry.cell = null;
+            if (old != null)
+                leave(old, entry);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        worlds.clear();
+    }
+
+    private void leave(Cell cell, Entry<T> entry) {
+        Map<Long, Set<Entry<T>>> cells = worlds.get(cell.world());
+        if (cells == null)
+            return;
+        cells.computeIfPresent(key(cell.x(), cell.z()), (k, set) -> {
+            set.remove(entry);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * Visit every entity in a cell that overlaps the square of the given radius around (x, z).
+     * Each entity is visited at most once.
+     */
+    public void forEachNear(UUID world, double x, double z, double radius, Consumer<T> action) {
+        Map<Long, Set<Entry<T>>> cells = worlds.get(world);
+        if (cells == null || cells.isEmpty())
+            return;
+        int minX = (int) Math.floor(x - radius) >> CELL_SHIFT;
+        int maxX = (int) Math.floor(x + radius) >> CELL_SHIFT;
+        int minZ = (int) Math.floor(z - radius) >> CELL_SHIFT;
+        int maxZ = (int) Math.floor(z + radius) >> CELL_SHIFT;
+
+        long area = (maxX - (long) minX + 1) * (maxZ - (long) minZ + 1);
+        if (area > cells.size()) {
+            // Huge radius: walking the occupied cells is cheaper than probing empty ones
+            for (Map.Entry<Long, Set<Entry<T>>> e : cells.entrySet()) {
+                int cx = (int) (e.getKey() >> 32);
+                int cz = (int) (long) e.getKey();
+                if (cx >= minX && cx <= maxX && cz >= minZ && cz <= maxZ)
+                    visit(e.getValue(), world, cx, cz, action);
+            }
+            return;
+        }
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cz = minZ; cz <= maxZ; cz++) {
+                Set<Entry<T>> set = cells.get(key(cx, cz));
+                if (set != null)
+                    visit(set, world, cx, cz, action);
+            }
+        }
+    }
+
+    private void visit(Set<Entry<T>> set, UUID world, int cx, int cz, Consumer<T> action) {
+        for (Entry<T> entry : set) {
+            // Skip an entry that is mid-move and already counts for its new cell
+            Cell cell = entry.cell;
+            if (cell != null && cell.is(world, cx, cz))
+                action.accept(entry.value);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,66 @@
+package me.rexsystems.rexChat.utils;
+
+import net.kyori.adventure.text.Component;
+import net.md_5.bungee.api.chat.BaseComponent;
+
+import java.util.function.Function;
+
+/**
+ * The result of rendering one chat line. The rendered string is built once;
+ * the Component, legacy BaseComponent[] and console text are derived from it
+ * lazily and computed at most once.
+ */
+public final class RenderedChat {
+    private final String rendered;
+    private final Function<String, Component> componentFactory;
+    private final Function<String, BaseComponent[]> legacyFactory;
+    private final Function<String, String> consoleFactory;
+
+    private Component component;
+    private BaseComponent[] legacy;
+    private String consolePlain;
+
+    RenderedChat(String rendered,
+                 Function<String, Component> componentFactory,
+                 Function<String, BaseComponent[]> legacyFactory,
+                 Function<String, String> consoleFactory) {
+        this.rendered = rendered;
+        this.componentFactory = componentFactory;
+        this.legacyFactory = legacyFactory;
+        this.consoleFactory = consoleFactory;
+    }
+
+    /**
+     * The formatted line with color codes and token wrappers, before parsing.
+     */
+    public String rendered() {
+        return rendered;
+    }
+
+    /**
+     * Adventure Component for modern servers.
+     */
+    public synchronized Component component() {
+        if (component == null)
+            component = componentFactory.apply(rendered);
+        return component;
+    }
+
+    /**
+     * Bungee components for legacy servers.
+     */
+    public synchronized BaseComponent[] legacy() {
+        if (legacy == null)
+            legacy = legacyFactory.apply(rendered);
+        return legacy;
+    }
+
+    /**
+     * Console line with preview token wrappers stripped.
+     */
+    public synchronized String consolePlain() {
+        if (consolePlain == null)
+            consolePlain = consoleFactory.apply(rendered);
+        return consolePlain;
+    }
+}
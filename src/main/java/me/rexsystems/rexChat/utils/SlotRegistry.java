@@ -0,0 +1,188 @@
+package me.rexsystems.rexChat.utils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Gives every online player a small int slot, reusing freed slots, so that sets
+ * of players can be kept as {@link BitSet}s. Slots are assigned on join and
+ * released on quit; release listeners run before a slot can be handed out
+ * again, so owners of bit sets can clear the stale bit.
+ *
+ * Recipient selection works on these bit sets: stages such as ranges,
+ * permissions or channels each produce a set and are combined with
+ * {@link BitSet#and}, {@link BitSet#or} and {@link BitSet#andNot}, so no
+ * per-message player collections are built or hashed.
+ *
+ * Lookups are lock-free; register/unregister/withSlot are serialized.
+ */
+public final class SlotRegistry<T> {
+    private final Object lock = new Object();
+    private final Map<UUID, Integer> slots = new ConcurrentHashMap<>();
+    private final BitSet used = new BitSet();
+    private volatile AtomicReferenceArray<T> values = new AtomicReferenceArray<>(64);
+    private final List<IntConsumer> releaseListeners = new ArrayList<>();
+
+    /**
+     * Assign a slot, or return the existing one (updating the stored value).
+     */
+    public int register(UUID id, T value) {
+        synchronized (lock) {
+            Integer existing = slots.get(id);
+            if (existing != null) {
+                values.set(existing, value);
+                return existing;
+            }
+            int slot = used.nextClearBit(0);
+            used.set(slot);
+            AtomicReferenceArray<T> current = values;
+            if (slot >= current.length()) {
+                AtomicReferenceArray<T> grown = new AtomicReferenceArray<>(current.length() * 2);
+                for (int i = 0; i < current.length(); i++) {
+                    grown.set(i, current.get(i));
+                }
+                values = current = grown;
+            }
+            current.set(slot, value);
+            slots.put(id, slot);
+            return slot;
+        }
+    }
+
+    /**
+     * Free the slot of id.
+     *
+     * @return the released slot, or -1 if id had none
+     */
+    public int unregister(UUID id) {
+        synchronized (lock) {
+            Integer slot = slots.remove(id);
+            if (slot == null)
+                return -1;
+            values.set(slot, null);
+            for (IntConsumer listener : releaseListeners) {
+                listener.accept(slot);
+            }
+            used.clear(slot);
+            return slot;
+        }
+    }
+
+    /**
+     * Called with each released slot, before it can be reused.
+     */
+    public void addReleaseListener(IntConsumer listener) {
+        synchronized (lock) {
+            releaseListeners.add(listener);
+        }
+    }
+
+    /**
+     * Slot of id, or -1.
+     */
+    public int slot(UUID id) {
+        Integer slot = slots.get(id);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * Run action with id's slot while id is sure to keep it: the slot can't be
+     * released (and its release listeners run) until action returns. Use this to
+     * set bits of a slot looked up off the main thread, so they are never set on
+     * a slot already handed to another player. Keep action short.
+     *
+     * @return false if id has no slot
+     */
+    public boolean withSlot(UUID id, IntConsumer action) {
+        synchronized (lock) {
+            Integer slot = slots.get(id);
+            if (slot == null)
+                return false;
+            action.accept(slot);
+            return true;
+        }
+    }
+
+    /**
+     * Value in a slot, or null if it is free.
+     */
+    public T get(int slot) {
+        AtomicReferenceArray<T> current = values;
+        return slot >= 0 && slot < current.length() ? current.get(slot) : null;
+    }
+
+    /**
+     * Copy of the set of occupied slots.
+     */
+    public BitSet occupied() {
+        synchronized (lock) {
+            return (BitSet) used.clone();
+        }
+    }
+
+    /**
+     * True if id has a slot and its bit is set.
+     */
+    public boolean contains(BitSet set, UUID id) {
+        int slot = slot(id);
+        return slot >= 0 && set.get(slot);
+    }
+
+    /**
+     * Set the bit of id's slot.
+     *
+     * @return false if id has no slot
+     */
+    public boolean mark(BitSet set, UUID id) {
+        int slot = slot(id);
+        if (slot < 0)
+            return false;
+        set.set(slot);
+        return true;
+    }
+
+    /**
+     * New set with the bits of set whose slot is occupied by a value matching filter.
+     */
+    public BitSet select(BitSet set, Predicate<T> filter) {
+        BitSet out = new BitSet(set.length());
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            T value = get(i);
+            if (value != null && filter.test(value))
+                out.set(i);
+        }
+        return out;
+    }
+
+    /**
+     * Run action for the value of every set bit that is an occupied slot.
+     */
+    public void forEach(BitSet set, Consumer<T> action) {
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            T value = get(i);
+            if (value != null)
+                action.accept(value);
+        }
+    }
+
+    /**
+     * Values of every set bit that is an occupied slot.
+     */
+    public List<T> collect(BitSet set) {
+        List<T> out = new ArrayList<>(set.cardinality());
+        forEach(set, out::add);
+        return out;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+}
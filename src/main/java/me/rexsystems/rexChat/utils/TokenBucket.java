@@ -0,0 +1,58 @@
+package me.rexsystems.rexChat.utils;
+
+/**
+ * Token bucket kept in a single long, so it can be updated with one
+ * compare-and-set and stored without allocating per message.
+ *
+ * The low {@value #TOKEN_BITS} bits hold the tokens in thousandths, the rest
+ * the time of the last refill in milliseconds (relative to any fixed base
+ * chosen by the caller). A new bucket is {@link #FULL}.
+ */
+public final class TokenBucket {
+    public static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long ONE = 1000;
+    /** Largest burst a bucket can hold. */
+    public static final int MAX_BURST = (int) (TOKEN_MASK / ONE);
+    /** State of a bucket that has never been used: as many tokens as allowed. */
+    public static final long FULL = TOKEN_MASK;
+    /** Returned by {@link #take} when there is no token left. */
+    public static final long REJECTED = -1;
+
+    private TokenBucket() {
+    }
+
+    /**
+     * Refill the bucket for the time passed and take one token.
+     *
+     * @param now       current time in milliseconds, not before the stored time
+     * @param burst     bucket size in tokens
+     * @param perSecond tokens added per second
+     * @return the new state, or {@link #REJECTED} (state unchanged) if no token is left
+     */
+    public static long take(long state, long now, int burst, double perSecond) {
+        long capacity = Math.min(MAX_BURST, Math.max(1, burst)) * ONE;
+        long tokens = Math.min(capacity, state & TOKEN_MASK);
+        long last = state >>> TOKEN_BITS;
+        if (state == FULL) {
+            last = now;
+        } else if (now > last) {
+            // Thousandths of a token per millisecond == tokens per second
+            long gained = (long) ((now - last) * perSecond);
+            if (gained > 0 || tokens >= capacity) {
+                tokens = Math.min(capacity, tokens + gained);
+                last = now;
+            }
+        }
+        if (tokens < ONE)
+            return REJECTED;
+        return (last << TOKEN_BITS) | (tokens - ONE);
+    }
+
+    /**
+     * Whole tokens left in a state (before refilling).
+     */
+    public static int tokens(long state) {
+        return (int) ((state & TOKEN_MASK) / ONE);
+    }
+}
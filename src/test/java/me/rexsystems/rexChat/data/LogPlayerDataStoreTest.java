@@ -0,0 +1,191 @@
+package me.rexsystems.rexChat.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the append-only player data log
+ */
+class LogPlayerDataStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testSaveAndLoad() throws IOException {
+        UUID uuid = UUID.randomUUID();
+        try (LogPlayerDataStore store = new LogPlayerDataStore(dir.resolve("players.dat"))) {
+            assertTrue(store.load(uuid).isEmpty());
+            store.save(new PlayerData(uuid, "gold", true));
+            assertEquals(new PlayerData(uuid, "gold", true), store.load(uuid));
+            store.save(new PlayerData(uuid, null, true));
+            assertEquals(new PlayerData(uuid, null, true), store.load(uuid));
+        }
+    }
+
+    @Test
+    void testChannelFields() throws IOException {
+        Path file = dir.resolve("players.dat");
+        UUID uuid = UUID.randomUUID();
+        PlayerData data = new PlayerData(uuid, null, false, "staff", Set.of("trade", "world"));
+        try (LogPlayerDataStore store = new LogPlayerDataStore(file)) {
+            store.save(data);
+        }
+        try (LogPlayerDataStore store = new LogPlayerDataStore(file)) {
+            assertEquals(data, store.load(uuid));
+        }
+    }
+
+    @Test
+    void testReopenKeepsLatestRecord() throws IOException {
+        Path file = dir.resolve("players.dat");
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        try (LogPlayerDataStore store = new LogPlayerDataStore(file)) {
+            store.save(new PlayerData(a, "red", false));
+            store.save(new PlayerData(a, "ocean", false));
+            store.save(new PlayerData(b, null, true));
+        }
+        try (LogPlayerDataStore store = new LogPlayerDataStore(file)) {
+            assertEquals(2, store.size());
+            assertEquals("ocean", store.load(a).chatColor());
+            assertTrue(store.load(b).proximityBypass());
+        }
+    }
+
+    @Test
+    void testEmptyDataRemovesPlayer() throws IOException {
+        Path file = dir.resolve("players.dat");
+        UUID uuid = UUID.randomUUID();
+        try (LogPlayerDataStore store = new LogPlayerDataStore(file)) {
+            store.save(new PlayerData(uuid, "red", false));
+            store.save(PlayerData.empty(uuid));
+            assertEquals(0, store.size());
+        }
+        try (LogPlayerDataStore store = new LogPlayerDataStore(file)) {
+            assertEquals(0, store.size());
+            assertTrue(store.load(uuid).isEmpty());
+        }
+    }
+
+    @Test
+    void testTornRecordIsDropped() throws IOException {
+        Path file = dir.resolve("players.dat");
+        UUID uuid = UUID.randomUUID();
+        long sizeAfterFirst;
+        try (LogPlayerDataStore store = new LogPlayerDataStore(file)) {
+            store.save(new PlayerData(uuid, "red", false));
+            sizeAfterFirst = store.fileSize();
+            store.save(new PlayerData(uuid, "sunset", false));
+        }
+        // Simulate a crash in the middle of the second append
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(Files.size(file) - 3);
+        }
+        try (LogPlayerDataStore store = new LogPlayerDataStore(file)) {
+            assertEquals("red", store.load(uuid).chatColor());
+            assertEquals(sizeAfterFirst, store.fileSize());
+        }
+    }
+
+    @Test
+    void testDamagedRecordInTheMiddleIsSkipped() throws IOException {
+        Path file = dir.resolve("players.dat");
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        long damaged;
+        try (LogPlayerDataStore store = new LogPlayerDataStore(file)) {
+            store.save(new PlayerData(a, "red", false));
+            damaged = store.fileSize();
+            store.save(new PlayerData(a, "sunset", false));
+            store.save(new PlayerData(b, "ocean", true));
+        }
+        // Flip a payload byte of the second record so its checksum fails
+        corrupt(file, damaged + 30);
+        try (LogPlayerDataStore store = new LogPlayerDataStore(file)) {
+            assertEquals(1, store.getCorruptRecords());
+            assertEquals("red", store.load(a).chatColor());
+            assertEquals(new PlayerData(b, "ocean", true), store.load(b), "Records after the damage are kept");
+        }
+    }
+
+    @Test
+    void testBrokenLengthInTheMiddleRefusesToOpen() throws IOException {
+        Path file = dir.resolve("players.dat");
+        UUID uuid = UUID.randomUUID();
+        long damaged;
+        try (LogPlayerDataStore store = new LogPlayerDataStore(file)) {
+            store.save(new PlayerData(uuid, "red", false));
+            damaged = store.fileSize();
+            store.save(new PlayerData(uuid, "sunset", false));
+            store.save(new PlayerData(uuid, "ocean", false));
+        }
+        long size = Files.size(file);
+        corrupt(file, damaged);
+        assertThrows(IOException.class, () -> new LogPlayerDataStore(file));
+        assertEquals(size, Files.size(file), "A refused file is left as it was");
+    }
+
+    @Test
+    void testZeroedTailIsDropped() throws IOException {
+        Path file = dir.resolve("players.dat");
+        UUID uuid = UUID.randomUUID();
+        long size;
+        try (LogPlayerDataStore store = new LogPlayerDataStore(file)) {
+            store.save(new PlayerData(uuid, "red", false));
+            size = store.fileSize();
+        }
+        // Crash after the file grew but before the record reached the disk
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.write(java.nio.ByteBuffer.allocate(40), size);
+        }
+        try (LogPlayerDataStore store = new LogPlayerDataStore(file)) {
+            assertEquals("red", store.load(uuid).chatColor());
+            assertEquals(size, store.fileSize());
+        }
+    }
+
+    private static void corrupt(Path file, long offset) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            java.nio.ByteBuffer b = java.nio.ByteBuffer.allocate(1);
+            ch.read(b, offset);
+            b.put(0, (byte) (b.get(0) ^ 0x7F)).rewind();
+            ch.write(b, offset);
+        }
+    }
+
+    @Test
+    void testCompactionKeepsLiveRecords() throws IOException {
+        Path file = dir.resolve("players.dat");
+        UUID[] players = new UUID[50];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = UUID.randomUUID();
+        }
+        try (LogPlayerDataStore store = new LogPlayerDataStore(file)) {
+            // Enough overwrites to pass the compaction threshold several times
+            for (int round = 0; round < 200; round++) {
+                for (int i = 0; i < players.length; i++) {
+                    store.save(new PlayerData(players[i], "color" + round, i % 2 == 0));
+                }
+            }
+            assertTrue(store.fileSize() < 64 * 1024 * 2);
+            for (int i = 0; i < players.length; i++) {
+                assertEquals(new PlayerData(players[i], "color199", i % 2 == 0), store.load(players[i]));
+            }
+        }
+        try (LogPlayerDataStore store = new LogPlayerDataStore(file)) {
+            assertEquals(players.length, store.size());
+            assertEquals("color199", store.load(players[7]).chatColor());
+        }
+    }
+}
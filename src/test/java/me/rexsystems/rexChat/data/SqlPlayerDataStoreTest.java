@@ -0,0 +1,72 @@
+package me.rexsystems.rexChat.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SQL player data store, run against an SQLite file
+ */
+class SqlPlayerDataStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testSaveAndLoad() throws IOException {
+        UUID uuid = UUID.randomUUID();
+        try (SqlPlayerDataStore store = SqlPlayerDataStore.sqlite(dir.resolve("players.db"))) {
+            assertTrue(store.load(uuid).isEmpty());
+            store.save(new PlayerData(uuid, "gold", true));
+            assertEquals(new PlayerData(uuid, "gold", true), store.load(uuid));
+            store.save(new PlayerData(uuid, null, true));
+            assertEquals(new PlayerData(uuid, null, true), store.load(uuid));
+        }
+    }
+
+    @Test
+    void testBatchUpsertAndDelete() throws IOException {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        try (SqlPlayerDataStore store = SqlPlayerDataStore.sqlite(dir.resolve("players.db"))) {
+            store.saveAll(List.of(new PlayerData(a, "red", false), new PlayerData(b, "aqua", true),
+                    new PlayerData(c, null, true)));
+            assertEquals(3, store.size());
+            store.saveAll(List.of(new PlayerData(a, "ocean", false), PlayerData.empty(b)));
+            assertEquals(2, store.size());
+            assertEquals("ocean", store.load(a).chatColor());
+            assertTrue(store.load(b).isEmpty());
+            assertTrue(store.load(c).proximityBypass());
+        }
+    }
+
+    @Test
+    void testChannelFields() throws IOException {
+        UUID uuid = UUID.randomUUID();
+        PlayerData data = new PlayerData(uuid, "red", false, "staff", Set.of("trade", "world"));
+        try (SqlPlayerDataStore store = SqlPlayerDataStore.sqlite(dir.resolve("players.db"))) {
+            store.save(data);
+            assertEquals(data, store.load(uuid));
+        }
+    }
+
+    @Test
+    void testDataSurvivesReopen() throws IOException {
+        Path file = dir.resolve("players.db");
+        UUID uuid = UUID.randomUUID();
+        try (SqlPlayerDataStore store = SqlPlayerDataStore.sqlite(file)) {
+            store.save(new PlayerData(uuid, "sunset", false));
+        }
+        try (SqlPlayerDataStore store = SqlPlayerDataStore.sqlite(file)) {
+            assertEquals(new PlayerData(uuid, "sunset", false), store.load(uuid));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package me.rexsystems.rexChat.utils;
+
+import me.rexsystems.rexChat.utils.ChatFormatTemplate.Placeholder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for compiled chat format templates
+ */
+class ChatFormatTemplateTest {
+
+    @Test
+    void testRenderReplacesAllPlaceholders() {
+        ChatFormatTemplate template = ChatFormatTemplate.compile("{prefix}&7{player}: &f{message}");
+        String out = template.render(p -> switch (p) {
+            case PREFIX -> "[Admin] ";
+            case PLAYER -> "Steve";
+            case MESSAGE -> "hello";
+            default -> fail("Unexpected placeholder " + p);
+        });
+        assertEquals("[Admin] &7Steve: &fhello", out);
+    }
+
+    @Test
+    void testOnlyUsedPlaceholdersAreResolved() {
+        ChatFormatTemplate template = ChatFormatTemplate.compile("&7{player}: {message}");
+        Map<Placeholder, Integer> calls = new EnumMap<>(Placeholder.class);
+        template.render(p -> {
+            calls.merge(p, 1, Integer::sum);
+            return "v";
+        });
+        assertEquals(2, calls.size());
+        assertTrue(template.uses(Placeholder.PLAYER));
+        assertFalse(template.uses(Placeholder.X), "Location should not be needed");
+        assertFalse(template.uses(Placeholder.PING), "Ping should not be needed");
+    }
+
+    @Test
+    void testUnknownTokensStayLiteral() {
+        ChatFormatTemplate template = ChatFormatTemplate.compile("{unknown} %other% {player");
+        assertTrue(template.getPlaceholders().isEmpty());
+        assertEquals("{unknown} %other% {player", template.render(p -> "x"));
+    }
+
+    @Test
+    void testMessageContentIsNotReinterpreted() {
+        ChatFormatTemplate template = ChatFormatTemplate.compile("{player}: {message} in {world}");
+        String out = template.render(p -> switch (p) {
+            case PLAYER -> "Alex";
+            case MESSAGE -> "{world} {ping}";
+            case WORLD -> "nether";
+            default -> "?";
+        });
+        assertEquals("Alex: {world} {ping} in nether", out);
+    }
+
+    @Test
+    void testRepeatedAndAdjacentPlaceholders() {
+        ChatFormatTemplate template = ChatFormatTemplate.compile("{x}{y}{z}|{x}%luckperms_prefix%");
+        String out = template.render(p -> switch (p) {
+            case X -> "1";
+            case Y -> "2";
+            case Z -> "3";
+            case LUCKPERMS_PREFIX -> "P";
+            default -> "?";
+        });
+        assertEquals("123|1P", out);
+    }
+
+    @Test
+    void testSuffixPlaceholders() {
+        ChatFormatTemplate template = ChatFormatTemplate.compile("{prefix}{player}{suffix}%luckperms_suffix%: {message}");
+        assertTrue(template.uses(Placeholder.SUFFIX));
+        assertTrue(template.uses(Placeholder.LUCKPERMS_SUFFIX));
+        String out = template.render(p -> switch (p) {
+            case PREFIX -> "[A] ";
+            case SUFFIX, LUCKPERMS_SUFFIX -> "*";
+            case PLAYER -> "Steve";
+            case MESSAGE -> "hi";
+            default -> "?";
+        });
+        assertEquals("[A] Steve**: hi", out);
+    }
+
+    @Test
+    void testExpandFillsFixedPlaceholdersOnly() {
+        ChatFormatTemplate template = ChatFormatTemplate.compile("[%server_name%] %vault_rank% {player}: {message}")
+                .expand(name -> name.equals("server_name"), token -> token.equals("%server_name%") ? "Lobby" : token);
+        assertEquals(List.of("vault_rank"), template.getExternalPlaceholders());
+
+        List<String> external = new ArrayList<>();
+        String out = template.render(new ChatFormatTemplate.Resolver() {
+            @Override
+            public String resolve(Placeholder p) {
+                return p == Placeholder.MESSAGE ? "%server_name%" : "Steve";
+            }
+
+            @Override
+            public String resolveExternal(String text) {
+                external.add(text);
+                return text.replace("%vault_rank%", "VIP");
+            }
+        });
+        // The message is never handed to resolveExternal
+        assertEquals("[Lobby] VIP Steve: %server_name%", out);
+        assertEquals(List.of("[Lobby] %vault_rank% "), external);
+    }
+
+    @Test
+    void testFullyExpandedFormatIsConstant() {
+        ChatFormatTemplate template = ChatFormatTemplate.compile("&7%server_name% ")
+                .expand(name -> true, token -> "Hub");
+        assertTrue(template.getExternalPlaceholders().isEmpty());
+        assertEquals("&7Hub ", template.render(p -> fail("No placeholders expected")));
+    }
+
+    @Test
+    void testNullFormatCompilesToEmpty() {
+        ChatFormatTemplate template = ChatFormatTemplate.compile(null);
+        assertEquals("", template.render(p -> "x"));
+    }
+}
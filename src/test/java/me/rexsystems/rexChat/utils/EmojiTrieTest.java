@@ -0,0 +1,49 @@
+package me.rexsystems.rexChat.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the compiled emoji alias trie
+ */
+class EmojiTrieTest {
+
+    @Test
+    void testReplacesAllAliases() {
+        Map<String, String> aliases = new LinkedHashMap<>();
+        aliases.put(":)", "☺");
+        aliases.put(":smile:", "☺");
+        aliases.put("<3", "❤");
+        EmojiTrie trie = EmojiTrie.build(aliases);
+        assertEquals("hi ☺ ☺ ❤❤", trie.apply("hi :) :smile: <3<3"));
+    }
+
+    @Test
+    void testLongestAliasWins() {
+        Map<String, String> aliases = new LinkedHashMap<>();
+        aliases.put(":", "C");
+        aliases.put(":d", "x");
+        aliases.put(":dd", "XD");
+        EmojiTrie trie = EmojiTrie.build(aliases);
+        assertEquals("XD x C", trie.apply(":dd :d :"));
+    }
+
+    @Test
+    void testReplacementIsNotRescanned() {
+        Map<String, String> aliases = new LinkedHashMap<>();
+        aliases.put("a", "ab");
+        aliases.put("b", "c");
+        assertEquals("abc", EmojiTrie.build(aliases).apply("ab"));
+    }
+
+    @Test
+    void testUnchangedMessageIsReturnedAsIs() {
+        String message = "nothing here";
+        assertSame(message, EmojiTrie.build(Map.of(":)", "☺")).apply(message));
+        assertSame(message, EmojiTrie.EMPTY.apply(message));
+    }
+}
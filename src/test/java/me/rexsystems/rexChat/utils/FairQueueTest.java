@@ -0,0 +1,127 @@
+package me.rexsystems.rexChat.utils;
+
+import me.rexsystems.rexChat.utils.FairQueue.ShedPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the per-sender fair chat queue
+ */
+class FairQueueTest {
+
+    private static List<String> drain(FairQueue<String, String> queue) {
+        List<String> out = new ArrayList<>();
+        FairQueue.Entry<String, String> entry;
+        while ((entry = queue.poll()) != null) {
+            out.add(entry.item());
+            queue.done(entry.key());
+        }
+        return out;
+    }
+
+    @Test
+    void testSendersTakeTurns() {
+        FairQueue<String, String> queue = new FairQueue<>(100, 10, ShedPolicy.DROP_NEWEST);
+        queue.offer("bot", "b1", false);
+        queue.offer("bot", "b2", false);
+        queue.offer("bot", "b3", false);
+        queue.offer("alex", "a1", false);
+        assertEquals(List.of("b1", "a1", "b2", "b3"), drain(queue));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void testPriorityServedFirst() {
+        FairQueue<String, String> queue = new FairQueue<>(100, 10, ShedPolicy.DROP_NEWEST);
+        queue.offer("bot", "b1", false);
+        queue.offer("staff", "s1", true);
+        assertEquals(List.of("s1", "b1"), drain(queue));
+    }
+
+    @Test
+    void testLaneIsNotSharedBetweenWorkers() {
+        FairQueue<String, String> queue = new FairQueue<>(100, 10, ShedPolicy.DROP_NEWEST);
+        queue.offer("alex", "a1", false);
+        queue.offer("alex", "a2", false);
+        FairQueue.Entry<String, String> first = queue.poll();
+        assertEquals("a1", first.item());
+        assertNull(queue.poll(), "a2 must wait until a1 is done");
+        queue.done("alex");
+        assertEquals("a2", queue.poll().item());
+    }
+
+    @Test
+    void testLaneLimit() {
+        FairQueue<String, String> newest = new FairQueue<>(100, 2, ShedPolicy.DROP_NEWEST);
+        newest.offer("bot", "b1", false);
+        newest.offer("bot", "b2", false);
+        assertEquals("b3", newest.offer("bot", "b3", false));
+        assertEquals(List.of("b1", "b2"), drain(newest));
+
+        FairQueue<String, String> oldest = new FairQueue<>(100, 2, ShedPolicy.DROP_OLDEST);
+        oldest.offer("bot", "b1", false);
+        oldest.offer("bot", "b2", false);
+        assertEquals("b1", oldest.offer("bot", "b3", false));
+        assertEquals(List.of("b2", "b3"), drain(oldest));
+    }
+
+    @Test
+    void testFullQueueShedsLongestLane() {
+        FairQueue<String, String> queue = new FairQueue<>(3, 10, ShedPolicy.DROP_OLDEST);
+        queue.offer("bot", "b1", false);
+        queue.offer("bot", "b2", false);
+        queue.offer("alex", "a1", false);
+        assertEquals("b1", queue.offer("steve", "s1", false));
+        assertEquals(3, queue.size());
+        assertEquals(List.of("b2", "a1", "s1"), drain(queue));
+    }
+
+    @Test
+    void testPriorityMakesRoomEvenWhenRejectingNewest() {
+        FairQueue<String, String> queue = new FairQueue<>(2, 10, ShedPolicy.DROP_NEWEST);
+        queue.offer("bot", "b1", false);
+        queue.offer("bot", "b2", false);
+        assertEquals("x1", queue.offer("alex", "x1", false));
+        assertEquals("b1", queue.offer("staff", "s1", true));
+        assertEquals(List.of("s1", "b2"), drain(queue));
+    }
+
+    @Test
+    void testEmptiedLaneIsReusable() {
+        FairQueue<String, String> queue = new FairQueue<>(1, 10, ShedPolicy.DROP_OLDEST);
+        queue.offer("bot", "b1", false);
+        queue.offer("alex", "a1", false);
+        queue.offer("bot", "b2", false);
+        assertEquals(List.of("b2"), drain(queue));
+    }
+
+    @Test
+    void testCloseReleasesWorkers() throws InterruptedException {
+        FairQueue<String, String> queue = new FairQueue<>(10, 10, ShedPolicy.DROP_NEWEST);
+        queue.offer("alex", "a1", false);
+        queue.close();
+        assertEquals("a2", queue.offer("alex", "a2", false), "Closed queue rejects new items");
+        assertEquals("a1", queue.take().item());
+        queue.done("alex");
+        assertNull(queue.take());
+    }
+
+    @Test
+    void testClearDropsWaitingItems() {
+        FairQueue<String, String> queue = new FairQueue<>(10, 10, ShedPolicy.DROP_NEWEST);
+        queue.offer("alex", "a1", false);
+        queue.offer("alex", "a2", false);
+        queue.offer("bot", "b1", false);
+        FairQueue.Entry<String, String> running = queue.poll();
+        assertEquals(2, queue.clear());
+        assertEquals(0, queue.size());
+        assertNull(queue.poll());
+        queue.done(running.key());
+        queue.offer("alex", "a3", false);
+        assertEquals(List.of("a3"), drain(queue));
+    }
+}
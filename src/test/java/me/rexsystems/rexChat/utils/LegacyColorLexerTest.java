@@ -0,0 +1,49 @@
+package me.rexsystems.rexChat.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the single-pass legacy to MiniMessage conversion
+ */
+class LegacyColorLexerTest {
+
+    @Test
+    void testLegacyCodesBothCases() {
+        assertEquals("<reset><red>Hi <bold>there",
+                LegacyColorLexer.toMiniMessage("&CHi &lthere", null));
+        assertEquals("<reset><gray>x", LegacyColorLexer.toMiniMessage("§7x", null));
+    }
+
+    @Test
+    void testHexFormats() {
+        assertEquals("<reset><#FF4500><bold>F", LegacyColorLexer.toMiniMessage("&#FF4500&lF", null));
+        assertEquals("<reset><#A96EEE> Hi", LegacyColorLexer.toMiniMessage("#A96EEE Hi", null));
+        assertEquals("<reset><#ff0000>Hi", LegacyColorLexer.toMiniMessage("§x§f§f§0§0§0§0Hi", null));
+        // MiniMessage color arguments are left alone
+        assertEquals("<gradient:#FF0000:#00FF00>x",
+                LegacyColorLexer.toMiniMessage("<gradient:#FF0000:#00FF00>x", null));
+    }
+
+    @Test
+    void testLoneAmpersandsAreKept() {
+        StringBuilder legacy = new StringBuilder();
+        assertEquals("Tom & Jerry &", LegacyColorLexer.toMiniMessage("Tom & Jerry &", legacy));
+        assertEquals("Tom __LONE_AMP__ Jerry __LONE_AMP__", legacy.toString());
+    }
+
+    @Test
+    void testProtectedHoverTagIsNotRecolored() {
+        String tag = "<hover:show_text:'&cIt''s #123456'><click:run_command:'/x &c'>&cLabel</click></hover>";
+        assertEquals(tag.length(), LegacyColorLexer.matchProtectedTag(tag, 0));
+        String out = LegacyColorLexer.toMiniMessage("&7" + tag + " &ahi", null);
+        assertEquals("<reset><gray><hover:show_text:'&cIt''s <reset><#123456>'>"
+                + "<click:run_command:'/x &c'>&cLabel</click></hover> <reset><green>hi", out);
+    }
+
+    @Test
+    void testUnclosedTagIsNotProtected() {
+        assertEquals(-1, LegacyColorLexer.matchProtectedTag("<hover:show_text:'a'><click:run_command:'b'>c", 0));
+    }
+}
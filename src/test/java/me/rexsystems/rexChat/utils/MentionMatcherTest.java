@@ -0,0 +1,58 @@
+package me.rexsystems.rexChat.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the mention automaton
+ */
+class MentionMatcherTest {
+
+    private static String render(MentionMatcher matcher, String text, boolean byName) {
+        StringBuilder out = new StringBuilder();
+        int last = 0;
+        for (MentionMatcher.Match m : matcher.find(text, byName)) {
+            out.append(text, last, m.start()).append('[').append(matcher.name(m.id())).append(']');
+            last = m.end();
+        }
+        return out.append(text, last, text.length()).toString();
+    }
+
+    @Test
+    void testAtAndByNameMentions() {
+        MentionMatcher matcher = MentionMatcher.build(List.of("Steve", "Alex"));
+        assertEquals("hi [Steve] and [Alex]!", render(matcher, "hi @steve and ALEX!", true));
+        assertEquals("hi [Steve] and ALEX!", render(matcher, "hi @steve and ALEX!", false));
+    }
+
+    @Test
+    void testByNameRequiresWordBoundaries() {
+        MentionMatcher matcher = MentionMatcher.build(List.of("Eve"));
+        assertEquals("Steve, evening, eve_1", render(matcher, "Steve, evening, eve_1", true));
+        assertEquals("([Eve])", render(matcher, "(eve)", true));
+        // @ mentions keep matching without a trailing boundary
+        assertEquals("[Eve]ning", render(matcher, "@evening", true));
+    }
+
+    @Test
+    void testLongestNameWins() {
+        MentionMatcher matcher = MentionMatcher.build(List.of("Ann", "Ann_B", "nn_B"));
+        assertEquals("[Ann_B] [Ann]", render(matcher, "@ann_b ann", true));
+        assertEquals(1, matcher.find("@Ann_B", true).size());
+    }
+
+    @Test
+    void testSharedSuffixes() {
+        MentionMatcher matcher = MentionMatcher.build(List.of("she", "he", "hers"));
+        assertEquals("u[she] [hers] [he]", render(matcher, "u@she @hers he", true));
+    }
+
+    @Test
+    void testEmpty() {
+        assertTrue(MentionMatcher.empty().find("@anyone", true).isEmpty());
+        assertTrue(MentionMatcher.build(List.of("Steve")).find("", true).isEmpty());
+    }
+}
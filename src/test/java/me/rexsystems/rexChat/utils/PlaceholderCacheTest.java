@@ -0,0 +1,112 @@
+package me.rexsystems.rexChat.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for per-placeholder PlaceholderAPI result caching
+ */
+class PlaceholderCacheTest {
+
+    // Fake PlaceholderAPI: replaces %name% with name=<call number>
+    private static UnaryOperator<String> resolver(List<String> calls) {
+        return text -> {
+            calls.add(text);
+            return text.replaceAll("%([^%\\s]+)%", "$1=" + calls.size());
+        };
+    }
+
+    @Test
+    void testCachedUntilTtlExpires() {
+        AtomicLong now = new AtomicLong(1000);
+        PlaceholderCache cache = PlaceholderCache.compile(Map.of("vault_eco_balance", 5.0), now::get);
+        UUID player = UUID.randomUUID();
+        List<String> calls = new ArrayList<>();
+
+        assertEquals("vault_eco_balance=1", cache.apply(player, "%vault_eco_balance%", resolver(calls)));
+        now.addAndGet(4000);
+        assertEquals("vault_eco_balance=1", cache.apply(player, "%vault_eco_balance%", resolver(calls)));
+        assertEquals(1, calls.size());
+
+        now.addAndGet(2000);
+        assertEquals("vault_eco_balance=2", cache.apply(player, "%vault_eco_balance%", resolver(calls)));
+    }
+
+    @Test
+    void testForeverAndPrefixRules() {
+        AtomicLong now = new AtomicLong(0);
+        PlaceholderCache cache = PlaceholderCache.compile(Map.of("player_name", -1.0, "statistic_*", 30.0), now::get);
+        UUID player = UUID.randomUUID();
+        List<String> calls = new ArrayList<>();
+
+        cache.apply(player, "%player_name% %statistic_deaths%", resolver(calls));
+        now.addAndGet(60_000);
+        String out = cache.apply(player, "%player_name% %statistic_deaths%", resolver(calls));
+        assertEquals("player_name=1 statistic_deaths=3", out);
+        assertEquals(3, calls.size());
+    }
+
+    @Test
+    void testUncachedPartsResolvedTogether() {
+        PlaceholderCache cache = PlaceholderCache.compile(Map.of("player_name", -1.0), () -> 0);
+        UUID player = UUID.randomUUID();
+        List<String> calls = new ArrayList<>();
+
+        String out = cache.apply(player, "[%world%] %player_name%: %ping%ms", resolver(calls));
+        assertEquals(List.of("[%world%] ", "%player_name%", ": %ping%ms"), calls);
+        assertEquals("[world=1] player_name=2: ping=3ms", out);
+
+        // Text without cached placeholders is passed through whole
+        calls.clear();
+        cache.apply(player, "%a% and %b%", resolver(calls));
+        assertEquals(List.of("%a% and %b%"), calls);
+    }
+
+    @Test
+    void testCachedValueIsNotParsedAgain() {
+        PlaceholderCache cache = PlaceholderCache.compile(Map.of("rate", -1.0), () -> 0);
+        UUID player = UUID.randomUUID();
+        String out = cache.apply(player, "%rate% done", text -> text.equals("%rate%") ? "50%" : text.replace("%", "!"));
+        assertEquals("50% done", out);
+    }
+
+    @Test
+    void testForgetDropsPlayerValues() {
+        PlaceholderCache cache = PlaceholderCache.compile(Map.of("player_name", -1.0), () -> 0);
+        UUID player = UUID.randomUUID();
+        List<String> calls = new ArrayList<>();
+        cache.apply(player, "%player_name%", resolver(calls));
+        assertEquals(1, cache.size());
+        cache.forget(player);
+        assertEquals(0, cache.size());
+        cache.apply(player, "%player_name%", resolver(calls));
+        assertEquals(2, calls.size());
+    }
+
+    @Test
+    void testValuesResolvedAfterQuitAreNotKept() {
+        Set<UUID> online = new HashSet<>();
+        PlaceholderCache cache = PlaceholderCache.compile(Map.of("luckperms_prefix", -1.0), () -> 0, online::contains);
+        UUID player = UUID.randomUUID();
+        online.add(player);
+        List<String> calls = new ArrayList<>();
+        cache.apply(player, "%luckperms_prefix%", resolver(calls));
+        assertEquals(1, cache.size());
+
+        // Quit: the player is forgotten, then the leave message is resolved
+        online.remove(player);
+        cache.forget(player);
+        assertEquals("luckperms_prefix=2", cache.apply(player, "%luckperms_prefix%", resolver(calls)));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,74 @@
+package me.rexsystems.rexChat.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the chunk-grid proximity index
+ */
+class ProximityGridTest {
+
+    private static final UUID WORLD = UUID.randomUUID();
+    private static final UUID NETHER = UUID.randomUUID();
+
+    private static List<String> near(ProximityGrid<String> grid, UUID world, double x, double z, double radius) {
+        List<String> found = new ArrayList<>();
+        grid.forEachNear(world, x, z, radius, found::add);
+        found.sort(null);
+        return found;
+    }
+
+    @Test
+    void testOnlyNearbyCellsAreVisited() {
+        ProximityGrid<String> grid = new ProximityGrid<>();
+        grid.update(UUID.randomUUID(), "a", WORLD, 5, 5);
+        grid.update(UUID.randomUUID(), "b", WORLD, 40, -20);
+        grid.update(UUID.randomUUID(), "c", WORLD, 1000, 1000);
+        grid.update(UUID.randomUUID(), "d", NETHER, 5, 5);
+
+        assertEquals(List.of("a", "b"), near(grid, WORLD, 0, 0, 50));
+        assertEquals(List.of("a"), near(grid, WORLD, 0, 0, 10));
+        assertEquals(List.of("d"), near(grid, NETHER, 0, 0, 10));
+    }
+
+    @Test
+    void testNegativeCoordinates() {
+        ProximityGrid<String> grid = new ProximityGrid<>();
+        grid.update(UUID.randomUUID(), "a", WORLD, -0.5, -0.5);
+        grid.update(UUID.randomUUID(), "b", WORLD, -17, 16);
+        assertEquals(List.of("a"), near(grid, WORLD, -1, -1, 0));
+        assertEquals(List.of("a", "b"), near(grid, WORLD, -1, 1, 16));
+    }
+
+    @Test
+    void testMoveAndRemove() {
+        ProximityGrid<String> grid = new ProximityGrid<>();
+        UUID id = UUID.randomUUID();
+        assertTrue(grid.update(id, "a", WORLD, 0, 0));
+        assertFalse(grid.update(id, "a", WORLD, 15, 15));
+        assertTrue(grid.update(id, "a", WORLD, 500, 0));
+        assertEquals(List.of(), near(grid, WORLD, 0, 0, 20));
+        assertEquals(List.of("a"), near(grid, WORLD, 500, 0, 20));
+
+        assertTrue(grid.update(id, "a", NETHER, 500, 0));
+        assertEquals(List.of(), near(grid, WORLD, 500, 0, 20));
+
+        grid.remove(id);
+        assertEquals(0, grid.size());
+        assertEquals(List.of(), near(grid, NETHER, 500, 0, 20));
+    }
+
+    @Test
+    void testHugeRadiusWalksOccupiedCells() {
+        ProximityGrid<String> grid = new ProximityGrid<>();
+        grid.update(UUID.randomUUID(), "a", WORLD, -50000, 50000);
+        grid.update(UUID.randomUUID(), "b", WORLD, 50000, -50000);
+        grid.update(UUID.randomUUID(), "c", WORLD, 200000, 0);
+        assertEquals(List.of("a", "b"), near(grid, WORLD, 0, 0, 100000));
+    }
+}
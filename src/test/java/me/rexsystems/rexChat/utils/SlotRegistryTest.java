@@ -0,0 +1,114 @@
+package me.rexsystems.rexChat.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the dense slot registry
+ */
+class SlotRegistryTest {
+
+    @Test
+    void testSlotsAreDenseAndReused() {
+        SlotRegistry<String> registry = new SlotRegistry<>();
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        assertEquals(0, registry.register(a, "a"));
+        assertEquals(1, registry.register(b, "b"));
+        assertEquals(0, registry.register(a, "a2"));
+        assertEquals("a2", registry.get(0));
+
+        assertEquals(0, registry.unregister(a));
+        assertNull(registry.get(0));
+        assertEquals(-1, registry.slot(a));
+        assertEquals(0, registry.register(c, "c"));
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    void testGrowsPastInitialCapacity() {
+        SlotRegistry<Integer> registry = new SlotRegistry<>();
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, registry.register(UUID.randomUUID(), i));
+        }
+        assertEquals(Integer.valueOf(150), registry.get(150));
+        assertEquals(200, registry.occupied().cardinality());
+    }
+
+    @Test
+    void testReleaseListenerRunsBeforeReuse() {
+        SlotRegistry<String> registry = new SlotRegistry<>();
+        BitSet members = new BitSet();
+        registry.addReleaseListener(members::clear);
+        UUID a = UUID.randomUUID();
+        members.set(registry.register(a, "a"));
+        registry.unregister(a);
+        registry.register(UUID.randomUUID(), "b");
+        assertTrue(members.isEmpty());
+    }
+
+    @Test
+    void testCollectSkipsFreeSlots() {
+        SlotRegistry<String> registry = new SlotRegistry<>();
+        UUID a = UUID.randomUUID();
+        registry.register(a, "a");
+        registry.register(UUID.randomUUID(), "b");
+        BitSet set = new BitSet();
+        set.set(0, 5);
+        registry.unregister(a);
+        assertEquals(List.of("b"), registry.collect(set));
+    }
+
+    @Test
+    void testSelectAndCombine() {
+        SlotRegistry<String> registry = new SlotRegistry<>();
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        registry.register(a, "admin");
+        registry.register(b, "bob");
+        registry.register(c, "carl");
+
+        BitSet inRange = new BitSet();
+        assertTrue(registry.mark(inRange, a));
+        assertTrue(registry.mark(inRange, b));
+        assertFalse(registry.mark(inRange, UUID.randomUUID()));
+
+        BitSet staff = registry.select(registry.occupied(), s -> s.startsWith("a"));
+        BitSet ignored = new BitSet();
+        registry.mark(ignored, b);
+
+        BitSet recipients = (BitSet) inRange.clone();
+        recipients.or(staff);
+        recipients.andNot(ignored);
+        assertEquals(List.of("admin"), registry.collect(recipients));
+        assertTrue(registry.contains(recipients, a));
+        assertFalse(registry.contains(recipients, b));
+        assertFalse(registry.contains(recipients, c));
+    }
+
+    @Test
+    void testWithSlotSkipsReleasedPlayer() {
+        SlotRegistry<String> registry = new SlotRegistry<>();
+        BitSet bypass = new BitSet();
+        registry.addReleaseListener(bypass::clear);
+        UUID a = UUID.randomUUID();
+        int slot = registry.register(a, "alex");
+
+        assertTrue(registry.withSlot(a, bypass::set));
+        assertTrue(bypass.get(slot));
+        registry.unregister(a);
+        assertFalse(bypass.get(slot));
+
+        // A late refresh for the player who quit must not mark the slot for the next one
+        assertFalse(registry.withSlot(a, bypass::set));
+        assertEquals(slot, registry.register(UUID.randomUUID(), "steve"));
+        assertFalse(bypass.get(slot));
+    }
+}
@@ -0,0 +1,60 @@
+package me.rexsystems.rexChat.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the packed token bucket
+ */
+class TokenBucketTest {
+
+    @Test
+    void testBurstThenReject() {
+        long state = TokenBucket.FULL;
+        for (int i = 0; i < 3; i++) {
+            state = TokenBucket.take(state, 1000, 3, 1.0);
+            assertNotEquals(TokenBucket.REJECTED, state, "Message " + i + " is within the burst");
+        }
+        assertEquals(0, TokenBucket.tokens(state));
+        assertEquals(TokenBucket.REJECTED, TokenBucket.take(state, 1000, 3, 1.0));
+    }
+
+    @Test
+    void testRefillOverTime() {
+        long state = TokenBucket.take(TokenBucket.FULL, 1000, 1, 0.5);
+        assertEquals(TokenBucket.REJECTED, TokenBucket.take(state, 2000, 1, 0.5));
+        // Half a token per second: one token after two seconds
+        assertNotEquals(TokenBucket.REJECTED, TokenBucket.take(state, 3000, 1, 0.5));
+    }
+
+    @Test
+    void testRefillIsCappedAtBurst() {
+        long state = TokenBucket.take(TokenBucket.FULL, 0, 2, 10.0);
+        // An hour idle still only allows the burst
+        state = TokenBucket.take(state, 3_600_000, 2, 10.0);
+        state = TokenBucket.take(state, 3_600_000, 2, 10.0);
+        assertEquals(TokenBucket.REJECTED, TokenBucket.take(state, 3_600_000, 2, 10.0));
+    }
+
+    @Test
+    void testRejectedAttemptsKeepRefilling() {
+        long state = TokenBucket.take(TokenBucket.FULL, 0, 1, 1.0);
+        // Spamming while empty must not reset the refill clock
+        for (long now = 1; now < 1000; now++) {
+            long next = TokenBucket.take(state, now, 1, 1.0);
+            assertEquals(TokenBucket.REJECTED, next);
+        }
+        assertNotEquals(TokenBucket.REJECTED, TokenBucket.take(state, 1000, 1, 1.0));
+    }
+
+    @Test
+    void testSmallerBurstClampsStoredTokens() {
+        long state = TokenBucket.FULL;
+        state = TokenBucket.take(state, 0, 10, 1.0);
+        assertEquals(9, TokenBucket.tokens(state));
+        // A stricter limit (e.g. a channel) applies to the same bucket right away
+        state = TokenBucket.take(state, 0, 2, 1.0);
+        assertEquals(1, TokenBucket.tokens(state));
+    }
+}